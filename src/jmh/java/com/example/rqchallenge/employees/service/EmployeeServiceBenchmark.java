@@ -0,0 +1,125 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeesResponse;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.example.rqchallenge.employees.utils.EmployeeStreamParser;
+import com.example.rqchallenge.employees.utils.HttpRestUtil;
+import com.example.rqchallenge.employees.utils.ResponseBodyReader;
+import com.example.rqchallenge.employees.utils.SingleFlight;
+import com.example.rqchallenge.perf.Rosters;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the EmployeeServiceImpl hot paths against a stubbed upstream that answers GET /employees with a
+ * generated roster of the given size. The service is used without its Spring proxies, so cache and retry are
+ * not part of the measurement. Run with ./gradlew jmh -Pjmh.includes=EmployeeService, which also reports
+ * allocation per operation from the gc profiler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeServiceBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    int size;
+
+    @Param({"Haley"})
+    String searchString;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EmployeeServiceImpl employeeService;
+
+    private String upstreamJson;
+
+    private byte[] upstreamBytes;
+
+    @Setup
+    public void setUp() throws Exception {
+        upstreamJson = Rosters.toUpstreamJson(Rosters.generate(size));
+        upstreamBytes = upstreamJson.getBytes(StandardCharsets.UTF_8);
+        employeeService = new EmployeeServiceImpl();
+        employeeService.employeeSnapshotStore = new EmployeeSnapshotStore();
+        employeeService.singleFlight = new SingleFlight(new SimpleMeterRegistry());
+        employeeService.httpRestUtil = new HttpRestUtil() {
+            @Override
+            public Optional<String> callRestAPI(String url, HttpHeaders headers, String methodType, Optional<String> requestBody) {
+                return Optional.of(upstreamJson);
+            }
+
+            @Override
+            public <T> T streamRestAPI(String url, ResponseBodyReader<T> reader) {
+                try {
+                    return reader.read(new ByteArrayInputStream(upstreamBytes));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }
+        };
+        employeeService.refreshSnapshot();
+    }
+
+    @Benchmark
+    public List<Employee> searchByName() throws Exception {
+        return employeeService.getEmployeesByNameSearch(searchString, false, NameQuery.UNLIMITED, NameQuery.FROM_START);
+    }
+
+    @Benchmark
+    public Integer highestSalary() throws Exception {
+        return employeeService.getHighestSalaryOfEmployees();
+    }
+
+    @Benchmark
+    public List<String> topTenNames() throws Exception {
+        return employeeService.getTopTenHighestEarningEmployeeNames();
+    }
+
+    /**
+     * The String based parse the streaming readers replaced, kept as the baseline.
+     */
+    @Benchmark
+    public EmployeesResponse deserializeEmployeesResponse() throws Exception {
+        return objectMapper.readValue(upstreamJson, EmployeesResponse.class);
+    }
+
+    @Benchmark
+    public List<Employee> streamAll() throws Exception {
+        return EmployeeStreamParser.readAll(new ByteArrayInputStream(upstreamBytes));
+    }
+
+    @Benchmark
+    public Integer streamHighestSalary() throws Exception {
+        return EmployeeStreamParser.highestSalary(new ByteArrayInputStream(upstreamBytes));
+    }
+
+    @Benchmark
+    public List<Employee> streamTopTen() throws Exception {
+        return EmployeeStreamParser.topEarners(new ByteArrayInputStream(upstreamBytes), AppConstants.TOP_EARNERS_LIMIT);
+    }
+
+    @Benchmark
+    public void refreshSnapshot() throws Exception {
+        employeeService.refreshSnapshot();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.perf.Rosters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the trigram {@link NameIndex} with the stream filter it replaced, over generated rosters.
+ * Run with ./gradlew jmh
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int size;
+
+    @Param({"Haley", "rin", "Nixon Kel"})
+    String searchString;
+
+    private List<Employee> employees;
+
+    private NameIndex index;
+
+    private NameQuery query;
+
+    private NameQuery ignoreCaseQuery;
+
+    private NameQuery limitedQuery;
+
+    @Setup
+    public void setUp() {
+        employees = Rosters.generate(size);
+        index = NameIndex.of(employees);
+        query = NameQuery.of(searchString);
+        ignoreCaseQuery = NameQuery.of(searchString, true, NameQuery.UNLIMITED);
+        limitedQuery = NameQuery.of(searchString, false, 10);
+    }
+
+    @Benchmark
+    public List<Employee> streamContains() {
+        return employees.stream().filter(employee -> employee.getName()
+                .contains(searchString)).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Employee> indexed() {
+        return index.search(query);
+    }
+
+    @Benchmark
+    public List<Employee> indexedIgnoreCase() {
+        return index.search(ignoreCaseQuery);
+    }
+
+    @Benchmark
+    public List<Employee> indexedLimit10() {
+        return index.search(limitedQuery);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.perf.Rosters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the snapshot layouts on the read paths and on a full build from a roster.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SnapshotLayoutBenchmark {
+
+    @Param({"100000", "1000000"})
+    int size;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    SnapshotLayout layout;
+
+    private EmployeeSnapshot snapshot;
+
+    private final NameQuery query = NameQuery.of("Haley", false, 100);
+
+    @Setup
+    public void setUp() {
+        snapshot = layout.create(Rosters.generate(size), Instant.now());
+    }
+
+    @Benchmark
+    public List<Employee> searchByName() {
+        return snapshot.searchByName(query);
+    }
+
+    @Benchmark
+    public List<String> topTenNames() {
+        return snapshot.getTopEarnerNames(10);
+    }
+
+    @Benchmark
+    public Integer highestSalary() {
+        return snapshot.getHighestSalary();
+    }
+
+    @Benchmark
+    public EmployeeSnapshot build() {
+        return layout.create(snapshot.getEmployees(), Instant.now());
+    }
+}
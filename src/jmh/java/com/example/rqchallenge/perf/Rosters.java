@@ -0,0 +1,54 @@
+package com.example.rqchallenge.perf;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeesResponse;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates repeatable employee rosters for the benchmarks, with names built from a small vocabulary so
+ * substring queries have realistic selectivity.
+ */
+public final class Rosters {
+
+    private static final String[] FIRST_NAMES = {"Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod",
+            "Rhona", "Colleen", "Sonya", "Jena", "Quinn", "Charde", "Haley", "Tatyana", "Michael", "Paul", "Gloria",
+            "Bradley", "Dai", "Jenette", "Yuri", "Caesar", "Doris", "Angelica", "Gavin", "Jennifer", "Brenden",
+            "Fiona", "Shou", "Michelle", "Suki", "Prescott", "Gonzalo", "Martena", "Unity", "Howard", "Hope", "Vivian",
+            "Timothy", "Jackson", "Olivia", "Bruno", "Sakura", "Thor", "Finn", "Serge", "Zenaida", "Zorita", "Lael"};
+
+    private static final String[] SYLLABLES = {"ni", "xon", "ken", "ne", "dy", "win", "ters", "cox", "kel", "ly",
+            "sa", "tou", "wil", "li", "son", "chan", "dler", "da", "vid", "son", "frost", "rios", "mar", "shall",
+            "fla", "gu", "mo", "ri", "na", "ge", "ro", "ba", "ker", "ho", "pe", "ta", "tum", "ber", "rin", "vaugh"};
+
+    private Rosters() {
+    }
+
+    public static List<Employee> generate(int size) {
+        Random random = new Random(42);
+        List<Employee> employees = new ArrayList<>(size);
+        for (int id = 1; id <= size; id++) {
+            String lastName = SYLLABLES[random.nextInt(SYLLABLES.length)] + SYLLABLES[random.nextInt(SYLLABLES.length)];
+            String name = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + Character.toUpperCase(lastName.charAt(0)) + lastName.substring(1);
+            employees.add(new Employee(id, name, 1000 + random.nextInt(500000),
+                    String.valueOf(20 + random.nextInt(45)), ""));
+        }
+        return employees;
+    }
+
+    /**
+     * This method is used to render a roster the way the upstream GET /employees answers.
+     * @param employees
+     * @return
+     * @throws JsonProcessingException
+     */
+    public static String toUpstreamJson(List<Employee> employees) throws JsonProcessingException {
+        return new ObjectMapper().writeValueAsString(new EmployeesResponse(AppConstants.SUCCESS, employees));
+    }
+}
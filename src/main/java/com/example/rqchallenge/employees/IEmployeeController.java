@@ -1,9 +1,13 @@
 package com.example.rqchallenge.employees;
 
+import com.example.rqchallenge.employees.entities.BatchItemResult;
 import com.example.rqchallenge.employees.entities.Employee;
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
@@ -13,10 +17,19 @@ import java.util.Map;
 public interface IEmployeeController {
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException;
+    ResponseEntity<List<Employee>> getAllEmployees(@RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) Integer after,
+                                                   @RequestParam(required = false) String fields) throws IOException;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    ResponseEntity<StreamingResponseBody> streamAllEmployees();
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString);
+    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                            @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                                            @RequestParam(required = false) Integer limit,
+                                                            @RequestParam(required = false) Integer after,
+                                                            @RequestParam(required = false) String fields);
 
     @GetMapping("/{id}")
     ResponseEntity<Employee> getEmployeeById(@PathVariable String id);
@@ -27,10 +40,25 @@ public interface IEmployeeController {
     @GetMapping("/topTenHighestEarningEmployeeNames")
     ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames();
 
+    @GetMapping("/topEarners")
+    ResponseEntity<List<Employee>> getTopEarners(@RequestParam(defaultValue = "10") int n);
+
+    @GetMapping("/stats")
+    ResponseEntity<SalaryStats> getSalaryStats();
+
     @PostMapping()
     ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput);
 
     @DeleteMapping("/{id}")
     ResponseEntity<String> deleteEmployeeById(@PathVariable String id);
 
+    @PostMapping("/batch")
+    ResponseEntity<List<BatchItemResult>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
+
+    @DeleteMapping("/batch")
+    ResponseEntity<List<BatchItemResult>> deleteEmployeesById(@RequestBody List<String> ids);
+
+    @PostMapping("/lookup")
+    ResponseEntity<EmployeeLookupResponse> lookupEmployeesById(@RequestBody List<String> ids);
+
 }
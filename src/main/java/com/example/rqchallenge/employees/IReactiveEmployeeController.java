@@ -0,0 +1,67 @@
+package com.example.rqchallenge.employees;
+
+import com.example.rqchallenge.employees.entities.BatchItemResult;
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link IEmployeeController} with the same routes and JSON shapes.
+ */
+@RestController
+public interface IReactiveEmployeeController {
+
+    @GetMapping()
+    Mono<ResponseEntity<List<Employee>>> getAllEmployees(@RequestParam(required = false) Integer limit,
+                                                         @RequestParam(required = false) Integer after,
+                                                         @RequestParam(required = false) String fields);
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Flux<Employee> streamAllEmployees();
+
+    @GetMapping("/search/{searchString}")
+    Mono<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                                  @RequestParam(defaultValue = "false") boolean ignoreCase,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) Integer after,
+                                                                  @RequestParam(required = false) String fields);
+
+    @GetMapping("/{id}")
+    Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
+
+    @GetMapping("/highestSalary")
+    Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees();
+
+    @GetMapping("/topTenHighestEarningEmployeeNames")
+    Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames();
+
+    @GetMapping("/topEarners")
+    Mono<ResponseEntity<List<Employee>>> getTopEarners(@RequestParam(defaultValue = "10") int n);
+
+    @GetMapping("/stats")
+    Mono<ResponseEntity<SalaryStats>> getSalaryStats();
+
+    @PostMapping()
+    Mono<ResponseEntity<Employee>> createEmployee(@RequestBody Map<String, Object> employeeInput);
+
+    @DeleteMapping("/{id}")
+    Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+
+    @PostMapping("/batch")
+    Mono<ResponseEntity<List<BatchItemResult>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
+
+    @DeleteMapping("/batch")
+    Mono<ResponseEntity<List<BatchItemResult>>> deleteEmployeesById(@RequestBody List<String> ids);
+
+    @PostMapping("/lookup")
+    Mono<ResponseEntity<EmployeeLookupResponse>> lookupEmployeesById(@RequestBody List<String> ids);
+
+}
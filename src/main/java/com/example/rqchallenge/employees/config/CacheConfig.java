@@ -0,0 +1,74 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.store.EmployeeSnapshot;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * This class configures bounded Caffeine caches (W-TinyLFU eviction) for the employee service results.
+ * Every cache records hit/miss/eviction stats, which actuator publishes as cache.* metrics tagged by cache name.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(EmployeeCacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public CacheManager cacheManager(EmployeeCacheProperties cacheProperties, EmployeeSnapshotStore employeeSnapshotStore) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        //caches that are not configured explicitly are still bounded
+        cacheManager.setCaffeine(builder(cacheProperties.getDefaults()));
+        Map<String, CacheLoader<Object, Object>> refreshLoaders = refreshLoaders(employeeSnapshotStore);
+        cacheProperties.getCaches().forEach((name, spec) -> {
+            Caffeine<Object, Object> builder = builder(spec);
+            if (spec.getRefreshAfterWrite() == null) {
+                cacheManager.registerCustomCache(name, builder.build());
+                return;
+            }
+            CacheLoader<Object, Object> loader = refreshLoaders.get(name);
+            if (loader == null) {
+                throw new IllegalStateException("employee.cache.caches." + name
+                        + ".refresh-after-write is set but the cache has no refresh loader");
+            }
+            cacheManager.registerCustomCache(name, builder.refreshAfterWrite(spec.getRefreshAfterWrite()).build(loader));
+        });
+        return cacheManager;
+    }
+
+    private Caffeine<Object, Object> builder(EmployeeCacheProperties.CacheSpec spec) {
+        return Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfter(new EmployeeCacheExpiry(spec.getExpireAfterWrite(), spec.getNegativeExpireAfterWrite()))
+                .recordStats();
+    }
+
+    /**
+     * Loaders recompute the aggregate results from the in-memory snapshot. They return null when no
+     * snapshot is loaded yet, which Caffeine treats as a miss so the cached service method runs as usual.
+     * @param employeeSnapshotStore
+     * @return
+     */
+    private Map<String, CacheLoader<Object, Object>> refreshLoaders(EmployeeSnapshotStore employeeSnapshotStore) {
+        return Map.of(
+                "employeeByName", key -> employeeSnapshotStore.current()
+                        .map(snapshot -> snapshot.searchByName((NameQuery) key))
+                        .orElse(null),
+                "highestSalaryEmployee", key -> employeeSnapshotStore.current()
+                        .map(EmployeeSnapshot::getHighestSalary)
+                        .orElse(null),
+                "topTenHighestEarningEmployeeNames", key -> employeeSnapshotStore.current()
+                        .map(snapshot -> snapshot.getTopEarnerNames(AppConstants.TOP_EARNERS_LIMIT))
+                        .orElse(null));
+    }
+}
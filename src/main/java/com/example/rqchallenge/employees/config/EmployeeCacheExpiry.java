@@ -0,0 +1,41 @@
+package com.example.rqchallenge.employees.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.support.NullValue;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Expiry policy that keeps negative results (null or empty collections) for a shorter time than real data.
+ */
+public class EmployeeCacheExpiry implements Expiry<Object, Object> {
+
+    private final long expireAfterWriteNanos;
+    private final long negativeExpireAfterWriteNanos;
+
+    public EmployeeCacheExpiry(Duration expireAfterWrite, Duration negativeExpireAfterWrite) {
+        this.expireAfterWriteNanos = expireAfterWrite.toNanos();
+        this.negativeExpireAfterWriteNanos = negativeExpireAfterWrite.toNanos();
+    }
+
+    @Override
+    public long expireAfterCreate(Object key, Object value, long currentTime) {
+        return isNegative(value) ? negativeExpireAfterWriteNanos : expireAfterWriteNanos;
+    }
+
+    @Override
+    public long expireAfterUpdate(Object key, Object value, long currentTime, long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(Object key, Object value, long currentTime, long currentDuration) {
+        return currentDuration;
+    }
+
+    static boolean isNegative(Object value) {
+        return value == null || value == NullValue.INSTANCE
+                || (value instanceof Collection && ((Collection<?>) value).isEmpty());
+    }
+}
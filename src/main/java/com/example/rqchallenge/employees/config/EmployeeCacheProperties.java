@@ -0,0 +1,41 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class holds the per-cache bounds configured under employee.cache.*
+ */
+@Data
+@ConfigurationProperties(prefix = "employee.cache")
+public class EmployeeCacheProperties {
+
+    /**
+     * Spec applied to any cache that has no entry in {@link #caches}.
+     */
+    private CacheSpec defaults = new CacheSpec();
+
+    private Map<String, CacheSpec> caches = new LinkedHashMap<>();
+
+    @Data
+    public static class CacheSpec {
+
+        private long maximumSize = 1000;
+
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+        /**
+         * Lifetime of negative results (not found, empty search), kept short so new data shows up quickly.
+         */
+        private Duration negativeExpireAfterWrite = Duration.ofSeconds(30);
+
+        /**
+         * Optional, only allowed for caches that have a refresh loader.
+         */
+        private Duration refreshAfterWrite;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.utils.EmployeeFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MimeType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSON encoder of the reactive API that projects employees onto the fields request parameter, for the handlers marked
+ * {@link EmployeeFields.Projected} only, which validate the parameter. The handler is known from the return type the
+ * body is written for. The parameter is read from the request into an encode hint, which selects the filters the
+ * writer uses.
+ */
+public class EmployeeFieldsJsonEncoder extends Jackson2JsonEncoder {
+
+    private static final String FIELDS_HINT = EmployeeFieldsJsonEncoder.class.getName() + ".fields";
+
+    public EmployeeFieldsJsonEncoder(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    public Map<String, Object> getEncodeHints(ResolvableType actualType, ResolvableType elementType, MediaType mediaType,
+                                              ServerHttpRequest request, ServerHttpResponse response) {
+        Map<String, Object> hints = super.getEncodeHints(actualType, elementType, mediaType, request, response);
+        String fields = request.getQueryParams().getFirst(EmployeeFields.PARAM);
+        if (fields == null || !isProjected(actualType)) {
+            return hints;
+        }
+        Map<String, Object> withFields = new HashMap<>(hints);
+        withFields.put(FIELDS_HINT, fields);
+        return withFields;
+    }
+
+    private static boolean isProjected(ResolvableType actualType) {
+        Object source = actualType.getSource();
+        return source instanceof MethodParameter
+                && ((MethodParameter) source).hasMethodAnnotation(EmployeeFields.Projected.class);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, ResolvableType elementType,
+                                           Map<String, Object> hints) {
+        Object fields = hints != null ? hints.get(FIELDS_HINT) : null;
+        return fields != null ? writer.with(EmployeeFields.filtersFor((String) fields)) : writer;
+    }
+}
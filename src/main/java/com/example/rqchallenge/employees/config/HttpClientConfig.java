@@ -0,0 +1,102 @@
+package com.example.rqchallenge.employees.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
+
+/**
+ * This class configures the pooled, keep-alive HTTP client used for all upstream calls.
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Value("${employee.http.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${employee.http.pool.max-per-route:50}")
+    private int maxPerRoute;
+
+    @Value("${employee.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${employee.http.read-timeout-ms:5000}")
+    private int readTimeoutMs;
+
+    @Value("${employee.http.connection-request-timeout-ms:1000}")
+    private int connectionRequestTimeoutMs;
+
+    @Value("${employee.http.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Bean
+    public PoolingHttpClientConnectionManager httpConnectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        return connectionManager;
+    }
+
+    @Bean
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpConnectionManager) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(connectTimeoutMs)
+                .setSocketTimeout(readTimeoutMs)
+                .setConnectionRequestTimeout(connectionRequestTimeoutMs)
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    //honour the server keep-alive header but never keep a connection longer than our idle timeout
+                    long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return keepAlive > 0 ? Math.min(keepAlive, idleTimeoutMs) : idleTimeoutMs;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(ObjectProvider<RestTemplateBuilder> restTemplateBuilder, CloseableHttpClient httpClient) {
+        //boot only auto-configures the builder for servlet apps, the snapshot refresher still needs it in reactive mode
+        return restTemplateBuilder.getIfAvailable(RestTemplateBuilder::new)
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .build();
+    }
+
+    @Bean
+    public MeterBinder httpConnectionPoolMetrics(PoolingHttpClientConnectionManager httpConnectionManager) {
+        return registry -> {
+            registerPoolGauge(registry, httpConnectionManager, "leased", PoolStats::getLeased);
+            registerPoolGauge(registry, httpConnectionManager, "pending", PoolStats::getPending);
+            registerPoolGauge(registry, httpConnectionManager, "available", PoolStats::getAvailable);
+            registerPoolGauge(registry, httpConnectionManager, "max", PoolStats::getMax);
+        };
+    }
+
+    private void registerPoolGauge(MeterRegistry registry,
+                                   PoolingHttpClientConnectionManager connectionManager,
+                                   String state, ToIntFunction<PoolStats> stat) {
+        Gauge.builder("employee.http.pool.connections", connectionManager,
+                        manager -> stat.applyAsInt(manager.getTotalStats()))
+                .tag("state", state)
+                .description("Upstream HTTP connection pool connections by state")
+                .register(registry);
+    }
+}
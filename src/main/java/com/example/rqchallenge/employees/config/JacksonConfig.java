@@ -0,0 +1,35 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.utils.EmployeeFields;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+
+/**
+ * This class configures the application ObjectMapper to write employees through the {@link EmployeeFields} filter.
+ * The servlet API applies the fields parameter in {@link com.example.rqchallenge.employees.rest.EmployeeFieldsAdvice},
+ * the reactive API in {@link EmployeeFieldsJsonEncoder}.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer employeeFieldsCustomizer() {
+        return builder -> builder.mixIn(Employee.class, EmployeeFields.Projection.class).filters(EmployeeFields.ALL);
+    }
+
+    /**
+     * Runs after Boot's Jackson codec customizer, which registers the default encoder.
+     */
+    @Bean
+    @Order(1)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer employeeFieldsCodecCustomizer(ObjectMapper objectMapper) {
+        return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(new EmployeeFieldsJsonEncoder(objectMapper));
+    }
+}
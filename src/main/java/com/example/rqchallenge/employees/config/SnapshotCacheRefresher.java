@@ -0,0 +1,149 @@
+package com.example.rqchallenge.employees.config;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import com.example.rqchallenge.employees.store.EmployeeSnapshot;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotPublishedEvent;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.store.RosterDiff;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * This class brings the cached results up to date as soon as the snapshot changes, for only the records that changed,
+ * instead of on their first read after refresh-after-write or of wiping the caches:
+ * <ul>
+ *     <li>the aggregate results (search, highest salary, top earners) are updated when the change can affect them:
+ *     a search only when its query matches the name of a changed record, before or after the change; the highest
+ *     salary when a record now earns more, or one that earned it changed; the top earners when one of them changed,
+ *     or a record now earns at least the lowest of them. Both are also updated when they are not those of the previous
+ *     snapshot, since the diff is from that one. After a refresh from upstream, results that have a refresh loader
+ *     are reloaded in the background while the previous results are served meanwhile. After local creates and
+ *     deletes they are invalidated at once, so the next read computes them from the updated snapshot;</li>
+ *     <li>the salary statistics apply the change to their aggregate, after refreshes and local changes alike, so they
+ *     are never aggregated from the whole roster again while they stay cached. They only apply it when they were
+ *     aggregated from the snapshot it was made to; those already aggregated from the new snapshot are kept, and any
+ *     others are evicted;</li>
+ *     <li>after a refresh, cached employees by id are replaced with their changed record, and evicted once removed.
+ *     Local creates and deletes are written to that cache by the service.</li>
+ * </ul>
+ * Without a previous snapshot to compare with, every aggregate result counts as changed.
+ */
+@Component
+public class SnapshotCacheRefresher {
+
+    public static final Logger logger = LoggerFactory.getLogger(SnapshotCacheRefresher.class);
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @EventListener
+    @SuppressWarnings("unchecked")
+    public void onSnapshotPublished(EmployeeSnapshotPublishedEvent event) {
+        RosterDiff diff = event.getDiff();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache == null || !(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache)) {
+                continue;
+            }
+            if (name.equals("employeeById")) {
+                if (!event.isLocal()) {
+                    updateEmployeesById(cache, diff);
+                }
+                continue;
+            }
+            if (name.equals("salaryStats")) {
+                updateSalaryStats(cache, event);
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache =
+                    (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+            List<Object> touched = nativeCache.asMap().entrySet().stream()
+                    .filter(entry -> isTouched(name, entry.getKey(), entry.getValue(), event))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList());
+            if (!event.isLocal() && nativeCache instanceof LoadingCache) {
+                touched.forEach(((LoadingCache<Object, Object>) nativeCache)::refresh);
+            } else {
+                nativeCache.invalidateAll(touched);
+            }
+        }
+        logger.debug("Updated cached results for {}{}", diff, event.isLocal() ? " of local changes" : "");
+    }
+
+    /**
+     * This method is used to check whether the change of the event may affect a cached aggregate result.
+     * Results this class cannot tell about count as affected.
+     * @param name
+     * @param key
+     * @param value
+     * @param event
+     * @return
+     */
+    private boolean isTouched(String name, Object key, Object value, EmployeeSnapshotPublishedEvent event) {
+        RosterDiff diff = event.getDiff();
+        if (key instanceof NameQuery) {
+            return diff.touches(((NameQuery) key)::matches);
+        }
+        EmployeeSnapshot previous = event.getPrevious();
+        if (name.equals("highestSalaryEmployee")) {
+            //an empty roster has no highest salary, cached as a null placeholder
+            return previous == null || !(value instanceof Integer) || !value.equals(previous.getHighestSalary())
+                    || diff.touchesHighestSalary((Integer) value);
+        }
+        if (name.equals("topTenHighestEarningEmployeeNames")) {
+            if (previous == null || diff.isInitial()) {
+                return true;
+            }
+            List<Employee> topEarners = previous.getTopEarners(AppConstants.TOP_EARNERS_LIMIT);
+            //the cached names only tell which employees they are when they are those of the previous snapshot
+            return !topEarners.stream().map(Employee::getName).collect(Collectors.toList()).equals(value)
+                    || diff.touchesTopEarners(topEarners, AppConstants.TOP_EARNERS_LIMIT);
+        }
+        return true;
+    }
+
+    /**
+     * This method is used to apply the diff of the event to the cached salary statistics, see
+     * {@link SalaryStats#withDiff}. When they cannot follow it they are evicted, and aggregated again on their next read.
+     * @param cache
+     * @param event
+     */
+    @SuppressWarnings("unchecked")
+    private void updateSalaryStats(Cache cache, EmployeeSnapshotPublishedEvent event) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> salaryStats =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        for (Object key : salaryStats.asMap().keySet()) {
+            salaryStats.asMap().computeIfPresent(key, (cachedKey, value) -> value instanceof SalaryStats
+                    ? ((SalaryStats) value).withDiff(event.getPrevious(), event.getSnapshot(), event.getDiff())
+                    : null);
+        }
+    }
+
+    /**
+     * This method is used to replace the cached employees that changed, including ids cached as not found that were
+     * added, and evict those removed. Ids that are not cached are left for their first read.
+     * @param cache
+     * @param diff
+     */
+    @SuppressWarnings("unchecked")
+    private void updateEmployeesById(Cache cache, RosterDiff diff) {
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> employeeById =
+                (com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache();
+        for (Employee employee : diff.getUpserts()) {
+            employeeById.asMap().replace(String.valueOf(employee.getId()), employee);
+        }
+        diff.getRemovedIds().forEach(id -> cache.evict(String.valueOf(id)));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.rqchallenge.employees.config;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * This class decides which upstream errors count against the employeeUpstream circuit breaker.
+ * Connection errors, timeouts, unreadable bodies, 5xx and 429 responses say upstream is unhealthy; other 4xx responses
+ * are answers about the request itself, such as an unknown id, and do not.
+ */
+public class UpstreamFailurePredicate implements Predicate<Throwable> {
+
+    @Override
+    public boolean test(Throwable throwable) {
+        HttpStatus status = null;
+        if (throwable instanceof HttpStatusCodeException) {
+            status = ((HttpStatusCodeException) throwable).getStatusCode();
+        } else if (throwable instanceof WebClientResponseException) {
+            status = HttpStatus.resolve(((WebClientResponseException) throwable).getRawStatusCode());
+        }
+        return status == null || status.is5xxServerError() || status == HttpStatus.TOO_MANY_REQUESTS;
+    }
+}
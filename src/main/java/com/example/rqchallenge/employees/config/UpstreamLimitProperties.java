@@ -0,0 +1,43 @@
+package com.example.rqchallenge.employees.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * This class holds the adaptive upstream concurrency limit configured under employee.upstream.limit.*
+ */
+@Data
+@ConfigurationProperties(prefix = "employee.upstream.limit")
+public class UpstreamLimitProperties {
+
+    private int initial = 10;
+
+    private int min = 1;
+
+    /**
+     * Upper bound of the adaptive limit, kept within the employeeUpstream bulkhead.
+     */
+    private int max = 50;
+
+    /**
+     * How long a caller queues for a permit before it is rejected and served fallback data.
+     */
+    private Duration maxWait = Duration.ofMillis(200);
+
+    /**
+     * Calls slower than this shrink the limit. Streamed roster reads are not sampled, they take as long as the roster.
+     */
+    private Duration latencyThreshold = Duration.ofSeconds(1);
+
+    /**
+     * Pause after a 429 without a usable Retry-After header.
+     */
+    private Duration defaultRetryAfter = Duration.ofSeconds(1);
+
+    /**
+     * Longest pause honoured from a Retry-After header.
+     */
+    private Duration maxRetryAfter = Duration.ofSeconds(30);
+}
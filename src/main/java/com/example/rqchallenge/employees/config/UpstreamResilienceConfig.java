@@ -0,0 +1,85 @@
+package com.example.rqchallenge.employees.config;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.event.RetryEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * This class complements the resilience4j.* settings of the employeeUpstream circuit breaker and bulkhead.
+ * State, call and bulkhead gauges are published by resilience4j as resilience4j.* metrics; every state change is
+ * also logged and counted as employee.upstream.circuit.transitions, so short open periods between scrapes still show.
+ * Retries are counted by resilience4j as resilience4j.retry.calls; every call that gives up and falls back is also
+ * counted as employee.fallbacks with the exception that caused it, so an open circuit can be told from a slow upstream.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamLimitProperties.class)
+public class UpstreamResilienceConfig {
+
+    public static final Logger logger = LoggerFactory.getLogger(UpstreamResilienceConfig.class);
+
+    @Bean
+    public RegistryEventConsumer<CircuitBreaker> circuitTransitionRecorder(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> entryAddedEvent) {
+                CircuitBreaker circuitBreaker = entryAddedEvent.getAddedEntry();
+                circuitBreaker.getEventPublisher().onStateTransition(event -> {
+                    CircuitBreaker.StateTransition transition = event.getStateTransition();
+                    logger.warn("Circuit breaker {} moved from {} to {}", event.getCircuitBreakerName(),
+                            transition.getFromState(), transition.getToState());
+                    meterRegistry.counter("employee.upstream.circuit.transitions",
+                            "name", event.getCircuitBreakerName(),
+                            "from", transition.getFromState().name().toLowerCase(),
+                            "to", transition.getToState().name().toLowerCase()).increment();
+                });
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> entryRemoveEvent) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> entryReplacedEvent) {
+            }
+        };
+    }
+
+    @Bean
+    public RegistryEventConsumer<Retry> fallbackRecorder(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<Retry> entryAddedEvent) {
+                Retry.EventPublisher eventPublisher = entryAddedEvent.getAddedEntry().getEventPublisher();
+                eventPublisher.onError(event -> recordFallback(meterRegistry, event));
+                eventPublisher.onIgnoredError(event -> recordFallback(meterRegistry, event));
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<Retry> entryRemoveEvent) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<Retry> entryReplacedEvent) {
+            }
+        };
+    }
+
+    private static void recordFallback(MeterRegistry meterRegistry, RetryEvent event) {
+        Throwable cause = event.getLastThrowable();
+        meterRegistry.counter("employee.fallbacks",
+                "name", event.getName(),
+                "exception", cause == null ? "None" : cause.getClass().getSimpleName()).increment();
+    }
+}
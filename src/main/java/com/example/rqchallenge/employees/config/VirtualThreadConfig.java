@@ -0,0 +1,43 @@
+package com.example.rqchallenge.employees.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class switches Tomcat request handling to one virtual thread per request when
+ * employee.threads.virtual=true. Upstream calls made through HttpRestUtil run on the request
+ * thread, so they park a virtual thread instead of holding a platform thread.
+ * The code is compiled for Java 11 and looks the executor up at runtime, so the mode needs a Java 21+ JVM.
+ */
+@Configuration
+@ConditionalOnProperty(value = "employee.threads.virtual", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            logger.info("Serving requests on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException ex) {
+            throw new IllegalStateException("employee.threads.virtual=true needs a Java 21+ runtime but this is Java "
+                    + Runtime.version(), ex);
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(ExecutorService virtualThreadExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rqchallenge.employees.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * This class configures the non-blocking HTTP client used by the reactive employee API.
+ * It shares the employee.http.* pool and timeout settings with {@link HttpClientConfig}.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class WebClientConfig {
+
+    @Value("${employee.http.pool.max-total:200}")
+    private int maxTotal;
+
+    @Value("${employee.http.connect-timeout-ms:2000}")
+    private int connectTimeoutMs;
+
+    @Value("${employee.http.read-timeout-ms:5000}")
+    private long readTimeoutMs;
+
+    @Value("${employee.http.connection-request-timeout-ms:1000}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${employee.http.idle-timeout-ms:30000}")
+    private long idleTimeoutMs;
+
+    @Value("${employee.http.max-in-memory-size-bytes:16777216}")
+    private int maxInMemorySizeBytes;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider employeeConnectionProvider() {
+        return ConnectionProvider.builder("employee-upstream")
+                .maxConnections(maxTotal)
+                .pendingAcquireTimeout(Duration.ofMillis(connectionRequestTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(idleTimeoutMs))
+                .build();
+    }
+
+    @Bean
+    public WebClient employeeWebClient(WebClient.Builder webClientBuilder, ConnectionProvider employeeConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(employeeConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(readTimeoutMs));
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemorySizeBytes))
+                .build();
+    }
+}
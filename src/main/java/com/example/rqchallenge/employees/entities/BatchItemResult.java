@@ -0,0 +1,57 @@
+package com.example.rqchallenge.employees.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+/**
+ * This class is used to hold the outcome of one item of a batch create, delete or lookup.
+ * The status is the HTTP status the single-item endpoint would have answered with.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    @JsonProperty("index")
+    int index;
+
+    @JsonProperty("status")
+    int status;
+
+    @JsonProperty("id")
+    String id;
+
+    @JsonProperty("employee")
+    Employee employee;
+
+    @JsonProperty("name")
+    String name;
+
+    @JsonProperty("error")
+    String error;
+
+    public static BatchItemResult created(int index, Employee employee) {
+        return new BatchItemResult(index, HttpStatus.CREATED.value(), String.valueOf(employee.getId()), employee, null, null);
+    }
+
+    public static BatchItemResult found(int index, String id, Employee employee) {
+        return new BatchItemResult(index, HttpStatus.OK.value(), id, employee, null, null);
+    }
+
+    public static BatchItemResult deleted(int index, String id, String name) {
+        return new BatchItemResult(index, HttpStatus.OK.value(), id, null, name, null);
+    }
+
+    public static BatchItemResult notFound(int index, String id) {
+        return new BatchItemResult(index, HttpStatus.NOT_FOUND.value(), id, null, null, null);
+    }
+
+    public static BatchItemResult failed(int index, String id, String error) {
+        return new BatchItemResult(index, HttpStatus.INTERNAL_SERVER_ERROR.value(), id, null, null, error);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.rqchallenge.employees.entities;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is used to hold the answer of a bulk employee lookup.
+ * Every distinct requested id is in exactly one of the lists, in request order.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class EmployeeLookupResponse {
+
+    @JsonProperty("data")
+    List<Employee> data;
+
+    @JsonProperty("notFound")
+    List<String> notFound;
+
+    @JsonProperty("failed")
+    List<String> failed;
+
+    /**
+     * This method is used to sort per-id lookup results into the response lists.
+     * @param results
+     * @return
+     */
+    public static EmployeeLookupResponse of(List<BatchItemResult> results) {
+        EmployeeLookupResponse response = new EmployeeLookupResponse(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (BatchItemResult result : results) {
+            if (result.getStatus() == HttpStatus.OK.value()) {
+                response.data.add(result.getEmployee());
+            } else if (result.getStatus() == HttpStatus.NOT_FOUND.value()) {
+                response.notFound.add(result.getId());
+            } else {
+                response.failed.add(result.getId());
+            }
+        }
+        return response;
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.rqchallenge.employees.entities;
+
+import com.example.rqchallenge.employees.store.EmployeeSnapshot;
+import com.example.rqchallenge.employees.store.RosterDiff;
+import com.example.rqchallenge.employees.store.SalaryAggregate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is used to hold the salary statistics of the roster: count, min, max, mean, median and percentiles
+ * (nearest rank), the histogram of non-empty salary buckets and the same figures per age band.
+ * Salary figures are null when there are no employees.
+ * Statistics of a snapshot keep it as their source, so a roster change is only applied to the statistics of the
+ * snapshot it was made to.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class SalaryStats {
+
+    static final int[] PERCENTILES = {25, 50, 75, 90, 95, 99};
+
+    @JsonProperty("count")
+    int count;
+
+    @JsonProperty("min")
+    Integer min;
+
+    @JsonProperty("max")
+    Integer max;
+
+    @JsonProperty("mean")
+    Double mean;
+
+    @JsonProperty("median")
+    Double median;
+
+    @JsonProperty("percentiles")
+    Map<String, Integer> percentiles;
+
+    @JsonProperty("histogram")
+    List<Bucket> histogram;
+
+    @JsonProperty("ageBands")
+    List<AgeBand> ageBands;
+
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    SalaryAggregate aggregate;
+
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    EmployeeSnapshot source;
+
+    /**
+     * This method is used to get the statistics of a salary aggregate, not derived from any snapshot.
+     * @param aggregate
+     * @return
+     */
+    public static SalaryStats of(SalaryAggregate aggregate) {
+        return of(aggregate, null);
+    }
+
+    /**
+     * This method is used to get the statistics of a salary aggregate of the given snapshot.
+     * @param aggregate
+     * @param source
+     * @return
+     */
+    public static SalaryStats of(SalaryAggregate aggregate, EmployeeSnapshot source) {
+        int[] salaries = aggregate.getSalaries();
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        if (salaries.length > 0) {
+            for (int percentile : PERCENTILES) {
+                percentiles.put("p" + percentile, percentile(salaries, percentile));
+            }
+        }
+        List<Bucket> histogram = new ArrayList<>();
+        aggregate.getBuckets().forEach((from, count) ->
+                histogram.add(new Bucket(from, from + aggregate.getBucketWidth() - 1, count)));
+        List<AgeBand> ageBands = new ArrayList<>();
+        for (int band = 0; band < aggregate.getBandCount(); band++) {
+            int[] bandSalaries = aggregate.getBandSalaries(band);
+            ageBands.add(new AgeBand(ageLabel(aggregate.getAgeBounds(), band), bandSalaries.length, min(bandSalaries),
+                    max(bandSalaries), mean(bandSalaries.length, aggregate.getBandSum(band)), median(bandSalaries)));
+        }
+        return new SalaryStats(salaries.length, min(salaries), max(salaries), mean(salaries.length, aggregate.getSum()),
+                median(salaries), percentiles, histogram, ageBands, aggregate, source);
+    }
+
+    /**
+     * This method is used to get the statistics after the roster changed from previous to snapshot, by applying the
+     * diff to the aggregate. They stay as they are when they were already derived from snapshot, and are null when
+     * the roster has to be aggregated again: they were derived from another snapshot than previous, or the diff has
+     * nothing to patch.
+     * @param previous
+     * @param snapshot
+     * @param diff
+     * @return
+     */
+    public SalaryStats withDiff(EmployeeSnapshot previous, EmployeeSnapshot snapshot, RosterDiff diff) {
+        if (source == snapshot) {
+            return this;
+        }
+        if (aggregate == null || source == null || source != previous) {
+            return null;
+        }
+        SalaryAggregate updated = aggregate.withDiff(diff);
+        if (updated == null) {
+            return null;
+        }
+        return updated == aggregate
+                ? new SalaryStats(count, min, max, mean, median, percentiles, histogram, ageBands, aggregate, snapshot)
+                : of(updated, snapshot);
+    }
+
+    private static Integer min(int[] sorted) {
+        return sorted.length > 0 ? sorted[0] : null;
+    }
+
+    private static Integer max(int[] sorted) {
+        return sorted.length > 0 ? sorted[sorted.length - 1] : null;
+    }
+
+    private static Double mean(int count, long sum) {
+        return count > 0 ? (double) sum / count : null;
+    }
+
+    private static Double median(int[] sorted) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : ((double) sorted[middle - 1] + sorted[middle]) / 2;
+    }
+
+    private static int percentile(int[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static String ageLabel(int[] ageBounds, int band) {
+        if (band == ageBounds.length + 1) {
+            return "unknown";
+        }
+        if (ageBounds.length == 0) {
+            return "all";
+        }
+        if (band == 0) {
+            return "<" + ageBounds[0];
+        }
+        if (band == ageBounds.length) {
+            return ageBounds[band - 1] + "+";
+        }
+        return ageBounds[band - 1] + "-" + (ageBounds[band] - 1);
+    }
+
+    /**
+     * This class is used to hold the number of salaries from and to, both inclusive.
+     */
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Data
+    public static class Bucket {
+
+        @JsonProperty("from")
+        int from;
+
+        @JsonProperty("to")
+        int to;
+
+        @JsonProperty("count")
+        int count;
+    }
+
+    /**
+     * This class is used to hold the salary statistics of the employees of an age band.
+     */
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Data
+    public static class AgeBand {
+
+        @JsonProperty("ages")
+        String ages;
+
+        @JsonProperty("count")
+        int count;
+
+        @JsonProperty("min")
+        Integer min;
+
+        @JsonProperty("max")
+        Integer max;
+
+        @JsonProperty("mean")
+        Double mean;
+
+        @JsonProperty("median")
+        Double median;
+    }
+}
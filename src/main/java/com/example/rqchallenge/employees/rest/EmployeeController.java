@@ -1,26 +1,40 @@
 package com.example.rqchallenge.employees.rest;
 
 import com.example.rqchallenge.employees.IEmployeeController;
+import com.example.rqchallenge.employees.entities.BatchItemResult;
 import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
 import com.example.rqchallenge.employees.service.IEmployeeService;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.utils.EmployeeFields;
+import com.example.rqchallenge.employees.utils.NdjsonEmployeeWriter;
+import com.example.rqchallenge.employees.utils.PageLinks;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/employee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class EmployeeController implements IEmployeeController {
 
     public static final Logger logger = LoggerFactory.getLogger(EmployeeController.class);
@@ -28,14 +42,27 @@ public class EmployeeController implements IEmployeeController {
     @Autowired
     private IEmployeeService employeeService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${employee.batch.max-size:1000}")
+    private int maxBatchSize;
+
     @Override
-    public ResponseEntity<List<Employee>> getAllEmployees() throws IOException {
+    @EmployeeFields.Projected
+    public ResponseEntity<List<Employee>> getAllEmployees(Integer limit, Integer after, String fields) throws IOException {
+        if ((limit != null && limit < 1) || !EmployeeFields.isValid(fields)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
         try {
-            List<Employee> employees = employeeService.getAllEmployees();
+            List<Employee> employees = limit == null && after == null ? employeeService.getAllEmployees()
+                    : employeeService.getEmployeesPage(after == null ? NameQuery.FROM_START : after,
+                            limit == null ? NameQuery.UNLIMITED : limit);
             if (Objects.isNull(employees) || employees.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
             } else {
-                return ResponseEntity.status(HttpStatus.OK).body(employees);
+                return page(employees, limit, UriComponentsBuilder.newInstance()
+                        .queryParamIfPresent(EmployeeFields.PARAM, Optional.ofNullable(fields)));
             }
         } catch (Exception ex) {
             logger.error("Error while fetching employees details. ERROR : ",ex);
@@ -44,23 +71,47 @@ public class EmployeeController implements IEmployeeController {
     }
 
     @Override
-    @Cacheable(value = "employeeByName", key = "#searchString")
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(String searchString) {
+    public ResponseEntity<StreamingResponseBody> streamAllEmployees() {
+        StreamingResponseBody body = out -> {
+            try (NdjsonEmployeeWriter writer = new NdjsonEmployeeWriter(objectMapper, out)) {
+                employeeService.forEachEmployee(writer);
+            } catch (UncheckedIOException ex) {
+                logger.debug("Client went away while streaming employees. ERROR : {}", ex.getCause().toString());
+                throw ex.getCause();
+            } catch (IOException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                logger.error("Error while streaming employees details. ERROR : ", ex);
+                throw new IOException(ex);
+            }
+        };
+        return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @Override
+    @EmployeeFields.Projected
+    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(String searchString, boolean ignoreCase, Integer limit,
+                                                                  Integer after, String fields) {
+        if ((limit != null && limit < 1) || !EmployeeFields.isValid(fields)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
         try {
-            List<Employee> employees = employeeService.getEmployeesByNameSearch(searchString);
+            List<Employee> employees = employeeService.getEmployeesByNameSearch(searchString, ignoreCase,
+                    limit == null ? NameQuery.UNLIMITED : limit, after == null ? NameQuery.FROM_START : after);
             if (Objects.isNull(employees) || employees.isEmpty()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
             } else {
-                return ResponseEntity.status(HttpStatus.OK).body(employees);
+                return page(employees, limit, UriComponentsBuilder.newInstance()
+                        .queryParam("ignoreCase", ignoreCase)
+                        .queryParamIfPresent(EmployeeFields.PARAM, Optional.ofNullable(fields)));
             }
         } catch (Exception ex) {
-            logger.error(String.format("Error while fetching employees details where name contains %s. ERROR : %s",searchString, ex));
+            logger.error("Error while fetching employees details where name contains {}. ERROR : ", searchString, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Cacheable(value = "employeeById", key = "#id")
     public ResponseEntity<Employee> getEmployeeById(String id) {
         try {
             Employee employee = employeeService.getEmployeeById(id);
@@ -70,13 +121,12 @@ public class EmployeeController implements IEmployeeController {
                 return ResponseEntity.status(HttpStatus.OK).body(employee);
             }
         } catch (Exception ex) {
-            logger.error(String.format("Error while searching the employee id %s",id));
+            logger.error("Error while searching the employee id {}", id, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @Cacheable("highestSalaryEmployee")
     public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
         try {
             Integer salary = employeeService.getHighestSalaryOfEmployees();
@@ -88,7 +138,6 @@ public class EmployeeController implements IEmployeeController {
     }
 
     @Override
-    @Cacheable("topTenHighestEarningEmployeeNames")
     public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
         try {
             List<String> employeesName = employeeService.getTopTenHighestEarningEmployeeNames();
@@ -98,13 +147,41 @@ public class EmployeeController implements IEmployeeController {
                 return ResponseEntity.status(HttpStatus.OK).body(employeesName);
             }
         } catch (Exception ex) {
-            logger.error(String.format("Error while fetching top 10 employees name having max salary",ex));
+            logger.error("Error while fetching top 10 employees name having max salary", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<Employee>> getTopEarners(int n) {
+        if (n < 1) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        try {
+            List<Employee> employees = employeeService.getTopEarners(n);
+            if (Objects.isNull(employees) || employees.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            } else {
+                return ResponseEntity.status(HttpStatus.OK).body(employees);
+            }
+        } catch (Exception ex) {
+            logger.error("Error while fetching top {} earning employees", n, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<SalaryStats> getSalaryStats() {
+        try {
+            SalaryStats stats = employeeService.getSalaryStats();
+            return ResponseEntity.status(HttpStatus.OK).body(stats);
+        } catch (Exception ex) {
+            logger.error("Error while fetching employees salary statistics", ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
     @Override
-    @CacheEvict(value = {"topTenHighestEarningEmployeeNames", "highestSalaryEmployee"}, allEntries = true)
     public ResponseEntity<Employee> createEmployee(Map<String, Object> employeeInput) {
         try {
             Employee employee = employeeService.createEmployee(employeeInput);
@@ -116,12 +193,6 @@ public class EmployeeController implements IEmployeeController {
     }
 
     @Override
-    @Caching(evict = {
-            @CacheEvict(value = "topTenHighestEarningEmployeeNames", allEntries = true),
-            @CacheEvict(value = "highestSalaryEmployee", allEntries = true),
-            @CacheEvict(value = "employeeByName", allEntries = true),
-            @CacheEvict(value = "employeeById", key = "#id")
-    })
     public ResponseEntity<String> deleteEmployeeById(String id) {
         try {
              String employeeName = employeeService.deleteEmployeeById(id);
@@ -131,8 +202,71 @@ public class EmployeeController implements IEmployeeController {
                 return ResponseEntity.status(HttpStatus.OK).body(employeeName);
             }
         } catch (Exception ex) {
-            logger.error(String.format("Error while deleting the employee id %s",id));
+            logger.error("Error while deleting the employee id {}", id, ex);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    @Override
+    public ResponseEntity<List<BatchItemResult>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        if (employeeInputs.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (employeeInputs.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(employeeService.createEmployees(employeeInputs));
+        } catch (Exception ex) {
+            logger.error("Error while creating a batch of {} employees", employeeInputs.size(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<List<BatchItemResult>> deleteEmployeesById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (ids.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(employeeService.deleteEmployeesById(ids));
+        } catch (Exception ex) {
+            logger.error("Error while deleting a batch of {} employees", ids.size(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @Override
+    public ResponseEntity<EmployeeLookupResponse> lookupEmployeesById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (ids.size() > maxBatchSize) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(employeeService.lookupEmployeesById(ids));
+        } catch (Exception ex) {
+            logger.error("Error while looking up {} employee ids", ids.size(), ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * This method is used to answer a page of employees, linking to the next page when the page is full.
+     * @param employees
+     * @param limit
+     * @param query
+     * @return
+     */
+    private static ResponseEntity<List<Employee>> page(List<Employee> employees, Integer limit, UriComponentsBuilder query) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (limit != null) {
+            PageLinks.next(employees, limit, query).ifPresent(link -> response.header(HttpHeaders.LINK, link));
+        }
+        return response.body(employees);
+    }
 }
@@ -0,0 +1,41 @@
+package com.example.rqchallenge.employees.rest;
+
+import com.example.rqchallenge.employees.utils.EmployeeFields;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.AbstractMappingJacksonResponseBodyAdvice;
+
+/**
+ * This class is used to project the employees of a JSON response onto the fields request parameter, for the handlers
+ * marked {@link EmployeeFields.Projected} only, which validate the parameter.
+ * The filters are handed to the message converter, so employees are written directly with only the requested fields.
+ */
+@RestControllerAdvice(basePackageClasses = EmployeeController.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class EmployeeFieldsAdvice extends AbstractMappingJacksonResponseBodyAdvice {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return super.supports(returnType, converterType) && returnType.hasMethodAnnotation(EmployeeFields.Projected.class);
+    }
+
+    @Override
+    protected void beforeBodyWriteInternal(MappingJacksonValue bodyContainer, MediaType contentType,
+                                           MethodParameter returnType, ServerHttpRequest request,
+                                           ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest)) {
+            return;
+        }
+        String fields = ((ServletServerHttpRequest) request).getServletRequest().getParameter(EmployeeFields.PARAM);
+        if (fields != null) {
+            bodyContainer.setFilters(EmployeeFields.filtersFor(fields));
+        }
+    }
+}
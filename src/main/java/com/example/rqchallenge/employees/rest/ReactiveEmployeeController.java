@@ -0,0 +1,199 @@
+package com.example.rqchallenge.employees.rest;
+
+import com.example.rqchallenge.employees.IReactiveEmployeeController;
+import com.example.rqchallenge.employees.entities.BatchItemResult;
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import com.example.rqchallenge.employees.service.IReactiveEmployeeService;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.utils.EmployeeFields;
+import com.example.rqchallenge.employees.utils.PageLinks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reactive employee API, active when spring.main.web-application-type=reactive.
+ * Status codes mirror {@link EmployeeController}.
+ */
+@RestController
+@RequestMapping("/employee")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeController implements IReactiveEmployeeController {
+
+    public static final Logger logger = LoggerFactory.getLogger(ReactiveEmployeeController.class);
+
+    @Autowired
+    private IReactiveEmployeeService employeeService;
+
+    @Value("${employee.batch.max-size:1000}")
+    private int maxBatchSize;
+
+    @Override
+    @EmployeeFields.Projected
+    public Mono<ResponseEntity<List<Employee>>> getAllEmployees(Integer limit, Integer after, String fields) {
+        if ((limit != null && limit < 1) || !EmployeeFields.isValid(fields)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        Flux<Employee> employees = limit == null && after == null ? employeeService.getAllEmployees()
+                : employeeService.getEmployeesPage(after == null ? NameQuery.FROM_START : after,
+                        limit == null ? NameQuery.UNLIMITED : limit);
+        return employees.collectList()
+                .map(page -> page.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NO_CONTENT).<List<Employee>>build()
+                        : page(page, limit, UriComponentsBuilder.newInstance()
+                                .queryParamIfPresent(EmployeeFields.PARAM, Optional.ofNullable(fields))))
+                .onErrorResume(ex -> internalServerError("Error while fetching employees details", ex));
+    }
+
+    @Override
+    public Flux<Employee> streamAllEmployees() {
+        //the ndjson encoder writes and flushes each employee as it is emitted
+        return employeeService.getAllEmployees()
+                .doOnError(ex -> logger.error("Error while streaming employees details. ERROR : ", ex));
+    }
+
+    @Override
+    @EmployeeFields.Projected
+    public Mono<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(String searchString, boolean ignoreCase, Integer limit,
+                                                                         Integer after, String fields) {
+        if ((limit != null && limit < 1) || !EmployeeFields.isValid(fields)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        return employeeService.getEmployeesByNameSearch(searchString, ignoreCase,
+                        limit == null ? NameQuery.UNLIMITED : limit, after == null ? NameQuery.FROM_START : after).collectList()
+                .map(employees -> employees.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND).<List<Employee>>build()
+                        : page(employees, limit, UriComponentsBuilder.newInstance()
+                                .queryParam("ignoreCase", ignoreCase)
+                                .queryParamIfPresent(EmployeeFields.PARAM, Optional.ofNullable(fields))))
+                .onErrorResume(ex -> internalServerError("Error while fetching employees details where name contains " + searchString, ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Employee>> getEmployeeById(String id) {
+        return employeeService.getEmployeeById(id)
+                .map(employee -> ResponseEntity.status(HttpStatus.OK).body(employee))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build())
+                .onErrorResume(ex -> internalServerError("Error while searching the employee id " + id, ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees() {
+        return employeeService.getHighestSalaryOfEmployees()
+                .map(salary -> ResponseEntity.status(HttpStatus.OK).body(salary))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.OK).build())
+                .onErrorResume(ex -> internalServerError("Error while fetching employees salary", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames() {
+        return employeeService.getTopTenHighestEarningEmployeeNames().collectList()
+                .map(employeesName -> employeesName.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND).<List<String>>build()
+                        : ResponseEntity.status(HttpStatus.OK).body(employeesName))
+                .onErrorResume(ex -> internalServerError("Error while fetching top 10 employees name having max salary", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<Employee>>> getTopEarners(int n) {
+        if (n < 1) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        return employeeService.getTopEarners(n).collectList()
+                .map(employees -> employees.isEmpty()
+                        ? ResponseEntity.status(HttpStatus.NOT_FOUND).<List<Employee>>build()
+                        : ResponseEntity.status(HttpStatus.OK).body(employees))
+                .onErrorResume(ex -> internalServerError("Error while fetching top " + n + " earning employees", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<SalaryStats>> getSalaryStats() {
+        return employeeService.getSalaryStats()
+                .map(stats -> ResponseEntity.status(HttpStatus.OK).body(stats))
+                .onErrorResume(ex -> internalServerError("Error while fetching employees salary statistics", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<Employee>> createEmployee(Map<String, Object> employeeInput) {
+        return employeeService.createEmployee(employeeInput)
+                .map(employee -> ResponseEntity.status(HttpStatus.CREATED).body(employee))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.CREATED).build())
+                .onErrorResume(ex -> internalServerError("Error while creating the employee", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<String>> deleteEmployeeById(String id) {
+        return employeeService.deleteEmployeeById(id)
+                .map(employeeName -> ResponseEntity.status(HttpStatus.OK).body(employeeName))
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).build())
+                .onErrorResume(ex -> internalServerError("Error while deleting the employee id " + id, ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<BatchItemResult>>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        if (employeeInputs.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        if (employeeInputs.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return employeeService.createEmployees(employeeInputs).collectList()
+                .map(results -> ResponseEntity.status(HttpStatus.OK).body(results))
+                .onErrorResume(ex -> internalServerError("Error while creating a batch of employees", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<List<BatchItemResult>>> deleteEmployeesById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        if (ids.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return employeeService.deleteEmployeesById(ids).collectList()
+                .map(results -> ResponseEntity.status(HttpStatus.OK).body(results))
+                .onErrorResume(ex -> internalServerError("Error while deleting a batch of employees", ex));
+    }
+
+    @Override
+    public Mono<ResponseEntity<EmployeeLookupResponse>> lookupEmployeesById(List<String> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).build());
+        }
+        if (ids.size() > maxBatchSize) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return employeeService.lookupEmployeesById(ids)
+                .map(response -> ResponseEntity.status(HttpStatus.OK).body(response))
+                .onErrorResume(ex -> internalServerError("Error while looking up employee ids", ex));
+    }
+
+    private static ResponseEntity<List<Employee>> page(List<Employee> employees, Integer limit, UriComponentsBuilder query) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK);
+        if (limit != null) {
+            PageLinks.next(employees, limit, query).ifPresent(link -> response.header(HttpHeaders.LINK, link));
+        }
+        return response.body(employees);
+    }
+
+    private <T> Mono<ResponseEntity<T>> internalServerError(String message, Throwable ex) {
+        logger.error(message, ex);
+        return Mono.just(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build());
+    }
+}
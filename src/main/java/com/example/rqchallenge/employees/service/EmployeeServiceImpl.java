@@ -1,65 +1,205 @@
 package com.example.rqchallenge.employees.service;
 
+import com.example.rqchallenge.employees.entities.BatchItemResult;
 import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
 import com.example.rqchallenge.employees.entities.EmployeesResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
 import com.example.rqchallenge.employees.entities.SingleEmployeeResponse;
+import com.example.rqchallenge.employees.store.EmployeeSnapshot;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.store.NameIndex;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.store.RosterDiff;
+import com.example.rqchallenge.employees.store.SalaryAggregate;
 import com.example.rqchallenge.employees.utils.AppConstants;
+import com.example.rqchallenge.employees.utils.BatchFanOut;
 import com.example.rqchallenge.employees.utils.EmployeeMockDataProvider;
+import com.example.rqchallenge.employees.utils.EmployeeStreamParser;
 import com.example.rqchallenge.employees.utils.HttpRestUtil;
+import com.example.rqchallenge.employees.utils.ResponseBodyReader;
+import com.example.rqchallenge.employees.utils.SingleFlight;
+import com.example.rqchallenge.employees.utils.UpstreamMetrics;
+import com.example.rqchallenge.employees.utils.UpstreamUrls;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.annotation.Retry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Results are cached here rather than in the controller, so only real upstream answers are cached.
+ * Retry wraps the cache, so neither exceptions nor fallback values ever reach it. Read fallbacks answer from the
+ * last good roster, see {@link EmployeeSnapshotStore#lastGood()}, and only use mock data when there is none.
+ * The upstream employee list is always parsed as a stream. With employee.snapshot.enabled=false the aggregates
+ * are computed while it streams in, instead of from the in-memory snapshot, so the roster is never held in memory.
+ */
 @Service
 public class EmployeeServiceImpl implements IEmployeeService{
 
     public static final Logger logger = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
+    /**
+     * Caches of results computed from the whole roster.
+     */
+    private static final List<String> AGGREGATE_CACHES = List.of("employeeByName", "highestSalaryEmployee",
+            "topTenHighestEarningEmployeeNames", "salaryStats");
+
     private ObjectMapper objectMapper = new ObjectMapper();
 
     @Autowired
     EmployeeMockDataProvider employeeMockDataProvider;
 
+    @Autowired
+    EmployeeSnapshotStore employeeSnapshotStore;
+
+    @Autowired
+    HttpRestUtil httpRestUtil;
+
+    @Autowired
+    SingleFlight singleFlight;
+
+    @Autowired
+    BatchFanOut batchFanOut;
+
+    @Autowired
+    RetryRegistry retryRegistry;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    UpstreamMetrics upstreamMetrics;
+
+    @Autowired
+    UpstreamUrls upstreamUrls;
+
+    @Value("${employee.snapshot.enabled:true}")
+    boolean snapshotEnabled = true;
+
+    @Value("${employee.stats.histogram-bucket-width:50000}")
+    int statsBucketWidth = 50000;
+
+    @Value("${employee.stats.age-bands:25,35,45,55,65}")
+    int[] statsAgeBands = {25, 35, 45, 55, 65};
+
     /**
-     * This API is used to get all the employees from data store
+     * This API is used to get all the employees from data store. Without the snapshot the list is collected while the
+     * upstream list streams in, for this request only.
      * @return
      * @throws Exception
      */
     @Retry(name="employeeServiceImpl",fallbackMethod = "getAllEmployeesMock")
-    public List<Employee> getAllEmployees() throws IOException {
-        Optional<String> response = HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                null ,AppConstants.GET, Optional.empty());
-        EmployeesResponse employeesResponse = objectMapper.readValue(response.get(), EmployeesResponse.class);
-        logger.debug("Employees are fetched successfully and size is %d",employeesResponse.getData().size());
-        return !employeesResponse.getData().isEmpty() ? employeesResponse.getData() : null;
+    public List<Employee> getAllEmployees() throws Exception {
+        List<Employee> employees = snapshotEnabled ? getSnapshot().getEmployees()
+                : singleFlight.execute("employees", "", () -> streamAllEmployees(EmployeeStreamParser::readAll));
+        return !employees.isEmpty() ? employees : null;
+    }
+
+    /**
+     * This method is used to pass every employee to the consumer, for responses written while the roster is read.
+     * With the snapshot enabled the roster is read like {@link #getAllEmployees()} and then walked; the columnar and
+     * mapped layouts create each employee only when it is passed on. Otherwise every employee is passed on while the
+     * upstream list streams in, so the roster is never held in memory. When the roster cannot be read before the first
+     * employee is passed on, the last good roster or mock data is passed on instead, as getAllEmployees falls back.
+     * A failure after that is thrown, since the consumer has already seen part of the roster.
+     * @param consumer
+     * @throws Exception
+     */
+    public void forEachEmployee(Consumer<Employee> consumer) throws Exception {
+        if (snapshotEnabled) {
+            List<Employee> employees;
+            try {
+                employees = getSnapshot().getEmployees();
+            } catch (Exception ex) {
+                logger.warn("Error while loading employees to stream, falling back. ERROR : {}", ex.toString());
+                employees = getAllEmployeesMock(ex);
+            }
+            employees.forEach(consumer);
+            return;
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            streamAllEmployees(body -> {
+                EmployeeStreamParser.forEachEmployee(body, employee -> {
+                    started.set(true);
+                    consumer.accept(employee);
+                });
+                return null;
+            });
+        } catch (Exception ex) {
+            if (started.get()) {
+                throw ex;
+            }
+            logger.warn("Error while streaming employees from upstream, falling back. ERROR : {}", ex.toString());
+            getAllEmployeesMock(ex).forEach(consumer);
+        }
+    }
+
+    /**
+     * This method is used to reload the in-memory employee snapshot from upstream.
+     * @throws Exception
+     */
+    public void refreshSnapshot() throws Exception {
+        loadSnapshot();
+    }
+
+    /**
+     * This method is used to get a page of the employees in id order, served from the id-ordered snapshot.
+     * @param after id of the last employee of the previous page, {@link NameQuery#FROM_START} for the first page
+     * @param limit maximum number of employees to return, {@link NameQuery#UNLIMITED} for all
+     * @return
+     * @throws Exception
+     */
+    @Retry(name="employeeService",fallbackMethod = "getEmployeesPageMock")
+    public List<Employee> getEmployeesPage(int after, int limit) throws Exception {
+        return snapshotEnabled ? getSnapshot().getEmployees(after, limit)
+                : singleFlight.execute("employeesPage", after + ":" + limit,
+                        () -> streamAllEmployees(body -> EmployeeStreamParser.page(body, after, limit)));
     }
 
     /**
-     * This Method is used to get all employees whose name contains input string.
+     * This Method is used to get all employees whose name contains input string, in id order.
      * @param searchString
+     * @param ignoreCase
+     * @param limit maximum number of employees to return, {@link NameQuery#UNLIMITED} for all
+     * @param after id of the last match of the previous page, {@link NameQuery#FROM_START} for the first page
      * @return
      * @throws Exception
      */
     @Retry(name="employeeService",fallbackMethod = "getEmployeesByNameSearchMock")
-    public List<Employee> getEmployeesByNameSearch(String searchString) throws Exception {
-        logger.debug(String.format("Searching for employees whose name contains %s ", searchString));
-        List<Employee> employees =  getAllEmployees();
-        logger.debug(String.format("There are %d  employees whose name contains %s ",employees.size(), searchString));
-        return employees.stream().filter(employee -> employee.getName()
-                .contains(searchString)).collect(Collectors.toList());
+    @Cacheable(value = "employeeByName",
+            key = "T(com.example.rqchallenge.employees.store.NameQuery).of(#searchString, #ignoreCase, #limit, #after)")
+    public List<Employee> getEmployeesByNameSearch(String searchString, boolean ignoreCase, int limit, int after) throws Exception {
+        logger.debug("Searching for employees whose name contains {}", searchString);
+        NameQuery query = NameQuery.of(searchString, ignoreCase, limit, after);
+        List<Employee> employees = snapshotEnabled ? getSnapshot().searchByName(query)
+                : singleFlight.execute("searchByName", query.toString(),
+                        () -> streamAllEmployees(body -> EmployeeStreamParser.searchByName(body, query)));
+        logger.debug("There are {} employees whose name contains {}", employees.size(), searchString);
+        return employees;
     }
 
     /**
@@ -69,14 +209,12 @@ public class EmployeeServiceImpl implements IEmployeeService{
      * @throws Exception
      */
     @Retry(name="employeeService",fallbackMethod = "getEmployeeByIdMock")
+    @Cacheable(value = "employeeById", key = "#id")
     public Employee getEmployeeById(String id) throws Exception {
-        logger.debug(String.format("Searching for %s employee ", id));
-        Optional<String> response = HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL+"/"+id,
-                null, AppConstants.GET, Optional.empty());
-        SingleEmployeeResponse employeeResponse = objectMapper.readValue(response.get(),
-                SingleEmployeeResponse.class);
+        logger.debug("Searching for {} employee", id);
+        Employee employee = fetchEmployeeById(id);
         logger.debug("Employee are fetched successfully");
-        return employeeResponse.getData()!=null ? employeeResponse.getData() : null;
+        return employee;
     }
 
     /**
@@ -85,12 +223,14 @@ public class EmployeeServiceImpl implements IEmployeeService{
      * @throws Exception
      */
     @Retry(name="employeeService",fallbackMethod = "getHighestSalaryOfEmployeesMock")
+    @Cacheable("highestSalaryEmployee")
     public Integer getHighestSalaryOfEmployees() throws Exception {
         logger.debug("getHighestSalaryOfEmployees API STARTS");
-        List<Employee> employees =  getAllEmployees();
-        Optional<Employee> employee =  employees.stream().max(Comparator.comparingDouble(Employee::getSalary));
+        Integer salary = snapshotEnabled ? getSnapshot().getHighestSalary()
+                : singleFlight.execute("highestSalary", "",
+                        () -> streamAllEmployees(EmployeeStreamParser::highestSalary));
         logger.debug("getHighestSalaryOfEmployees API ENDS");
-        return employee.map(Employee::getSalary).orElse(null);
+        return salary;
     }
 
     /**
@@ -99,13 +239,50 @@ public class EmployeeServiceImpl implements IEmployeeService{
      * @throws Exception
      */
     @Retry(name="employeeService",fallbackMethod = "getTopTenHighestEarningEmployeeNamesMock")
+    @Cacheable("topTenHighestEarningEmployeeNames")
     public List<String> getTopTenHighestEarningEmployeeNames() throws Exception {
-        List<Employee> employees =  getAllEmployees();
-        logger.debug(String.format("No of Employees are %d",employees.size()));
-        return employees.stream().sorted(Comparator.comparingDouble(Employee::getSalary)
-                .reversed())
-                .limit(10)
-                .map(Employee::getName).collect(Collectors.toList());
+        if (!snapshotEnabled) {
+            return getTopEarners(AppConstants.TOP_EARNERS_LIMIT).stream().map(Employee::getName)
+                    .collect(Collectors.toList());
+        }
+        EmployeeSnapshot snapshot = getSnapshot();
+        logger.debug("No of Employees are {}", snapshot.size());
+        return snapshot.getTopEarnerNames(AppConstants.TOP_EARNERS_LIMIT);
+    }
+
+    /**
+     * This method is used to get the n highest earning employees
+     * @param n
+     * @return
+     * @throws Exception
+     */
+    @Retry(name="employeeService",fallbackMethod = "getTopEarnersMock")
+    public List<Employee> getTopEarners(int n) throws Exception {
+        return snapshotEnabled ? getSnapshot().getTopEarners(n)
+                : singleFlight.execute("topEarners", String.valueOf(n),
+                        () -> streamAllEmployees(body -> EmployeeStreamParser.topEarners(body, n)));
+    }
+
+    /**
+     * This method is used to get the salary statistics of the roster, aggregated in one pass; in parallel over the
+     * snapshot, or while the upstream list streams in. The cached statistics follow creates, deletes and refreshes
+     * without aggregating the roster again, see {@link com.example.rqchallenge.employees.config.SnapshotCacheRefresher}.
+     * @return
+     * @throws Exception
+     */
+    @Retry(name="employeeService",fallbackMethod = "getSalaryStatsMock")
+    @Cacheable("salaryStats")
+    public SalaryStats getSalaryStats() throws Exception {
+        if (snapshotEnabled) {
+            EmployeeSnapshot snapshot = getSnapshot();
+            SalaryAggregate aggregate = snapshot.getSalaryAggregate(statsBucketWidth, statsAgeBands);
+            logger.debug("Aggregated the salaries of {} employees", aggregate.getCount());
+            return SalaryStats.of(aggregate, snapshot);
+        }
+        SalaryAggregate aggregate = singleFlight.execute("salaryStats", "", () -> streamAllEmployees(
+                body -> EmployeeStreamParser.salaryAggregate(body, statsBucketWidth, statsAgeBands)));
+        logger.debug("Aggregated the salaries of {} employees", aggregate.getCount());
+        return SalaryStats.of(aggregate);
     }
 
     /**
@@ -116,19 +293,17 @@ public class EmployeeServiceImpl implements IEmployeeService{
      */
     @Retry(name="employeeService",fallbackMethod = "createEmployeeMock")
     public Employee createEmployee(Map<String, Object> employeeInput) throws Exception {
-        Optional<String> empInputs = Optional.of(objectMapper.writeValueAsString(employeeInput));
-        logger.debug(String.format("Creating employee using below inputs : \n %s", empInputs));
-        HttpHeaders httpHeaders = new HttpHeaders();
-        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
-        Optional<String> response = HttpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL,
-                httpHeaders, AppConstants.POST , empInputs);
-        SingleEmployeeResponse employeeResponse = objectMapper.readValue(response.get(),
-                SingleEmployeeResponse.class);
-        return employeeResponse.getData()!=null ? employeeResponse.getData() : null;
+        Employee employee = postEmployee(employeeInput);
+        if (employee != null) {
+            writeThrough(List.of(employee), List.of());
+            cacheEmployeeById(String.valueOf(employee.getId()), employee);
+        }
+        return employee;
     }
 
     /**
-     * This method is used to delete the employee by using ID
+     * This method is used to delete the employee by using ID. The employee is taken from the in-memory snapshot when
+     * it is there, which also holds employees created here that upstream does not list yet.
      * @param id
      * @return
      * @throws Exception
@@ -136,41 +311,302 @@ public class EmployeeServiceImpl implements IEmployeeService{
     @Retry(name="employeeService",fallbackMethod = "deleteEmployeeByIdMock")
     public String deleteEmployeeById(String id) throws Exception {
         //we need employee of this ID
-        Employee employee = getEmployeeById(id);
+        Employee employee = findForDelete(employeeSnapshotStore.current(), id);
         if (employee != null) {
-            logger.debug(String.format("Deleting the employee having employee id : %s", id));
-            Optional<String> response = HttpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL + "/" + id,
-                    null, AppConstants.DELETE, Optional.empty());
-            String status = "";
-            if (response.isPresent()) {
-                //parse the response of delete API
-                JsonNode jsonNode = objectMapper.readTree(response.get());
-                status = jsonNode.get(AppConstants.STATUS).asText();
-            }
-            if (status.equalsIgnoreCase(AppConstants.SUCCESS)) {
+            logger.debug("Deleting the employee having employee id : {}", id);
+            if (callDeleteEmployee(id)) {
+                writeThrough(List.of(), List.of(employee.getId()));
+                cacheEmployeeById(id, null);
                 return employee.getName();
             }
         }
         return null;
     }
 
+    /**
+     * This method is used to create a batch of employees. Items are posted to upstream concurrently, bounded by
+     * employee.batch.concurrency, and each is retried on its own. A failed item is reported in its result instead of
+     * failing the batch. The snapshot and the aggregate caches are updated once for the whole batch.
+     * @param employeeInputs
+     * @return one result per input, in input order
+     * @throws Exception
+     */
+    public List<BatchItemResult> createEmployees(List<Map<String, Object>> employeeInputs) throws Exception {
+        io.github.resilience4j.retry.Retry retry = retryRegistry.retry("employeeService");
+        List<BatchItemResult> results = batchFanOut.map(employeeInputs, (index, employeeInput) -> {
+            Employee employee = retry.executeCallable(() -> postEmployee(employeeInput));
+            return employee != null ? BatchItemResult.created(index, employee)
+                    : BatchItemResult.failed(index, null, "Upstream did not return the created employee");
+        }, (index, employeeInput, ex) -> {
+            logger.warn("Error while creating employee {} of the batch. ERROR : {}", index, ex.toString());
+            return BatchItemResult.failed(index, null, ex.toString());
+        });
+        List<Employee> created = results.stream().map(BatchItemResult::getEmployee).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        writeThrough(created, List.of());
+        created.forEach(employee -> cacheEmployeeById(String.valueOf(employee.getId()), employee));
+        logger.debug("Created {} of {} employees of the batch", created.size(), employeeInputs.size());
+        return results;
+    }
+
+    /**
+     * This method is used to delete a batch of employees. The name of each employee is taken from the in-memory
+     * snapshot when it is there, so most items need only the upstream DELETE. Items are deleted concurrently, bounded
+     * by employee.batch.concurrency, and each is retried on its own. The snapshot and the caches are updated once for
+     * the whole batch.
+     * @param ids
+     * @return one result per id, in input order
+     * @throws Exception
+     */
+    public List<BatchItemResult> deleteEmployeesById(List<String> ids) throws Exception {
+        io.github.resilience4j.retry.Retry retry = retryRegistry.retry("employeeService");
+        Optional<EmployeeSnapshot> snapshot = employeeSnapshotStore.current();
+        List<BatchItemResult> results = batchFanOut.map(ids, (index, id) -> {
+            Employee employee = retry.executeCallable(() -> findForDelete(snapshot, id));
+            if (employee == null) {
+                return BatchItemResult.notFound(index, id);
+            }
+            return retry.executeCallable(() -> callDeleteEmployee(id)) ? BatchItemResult.deleted(index, id, employee.getName())
+                    : BatchItemResult.failed(index, id, "Upstream did not confirm the delete");
+        }, (index, id, ex) -> {
+            logger.warn("Error while deleting employee id {} of the batch. ERROR : {}", id, ex.toString());
+            return BatchItemResult.failed(index, id, ex.toString());
+        });
+        List<Integer> deleted = results.stream().filter(result -> result.getStatus() == HttpStatus.OK.value())
+                .map(result -> Integer.valueOf(result.getId())).collect(Collectors.toList());
+        writeThrough(List.of(), deleted);
+        Cache employeeById = cacheManager.getCache("employeeById");
+        if (employeeById != null) {
+            ids.forEach(employeeById::evict);
+        }
+        deleted.forEach(id -> cacheEmployeeById(String.valueOf(id), null));
+        logger.debug("Deleted {} of {} employees of the batch", deleted.size(), ids.size());
+        return results;
+    }
+
+    /**
+     * This method is used to look up many employees by id in one call. Ids are deduplicated. Each id is answered from
+     * the employeeById cache, else from the in-memory snapshot, and only the remaining ids are fetched from upstream,
+     * concurrently and bounded by employee.batch.concurrency. Fetched answers, found or not, are cached like
+     * {@link #getEmployeeById(String)} caches them.
+     * @param ids
+     * @return
+     * @throws Exception
+     */
+    public EmployeeLookupResponse lookupEmployeesById(List<String> ids) throws Exception {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Cache employeeById = cacheManager.getCache("employeeById");
+        Optional<EmployeeSnapshot> snapshot = employeeSnapshotStore.current();
+        BatchItemResult[] results = new BatchItemResult[distinctIds.size()];
+        List<Integer> misses = new ArrayList<>();
+        for (int index = 0; index < distinctIds.size(); index++) {
+            String id = distinctIds.get(index);
+            Cache.ValueWrapper cached = employeeById != null ? employeeById.get(id) : null;
+            Optional<Employee> fromSnapshot = cached == null ? findInSnapshot(snapshot, id) : Optional.empty();
+            if (cached != null) {
+                results[index] = cached.get() != null ? BatchItemResult.found(index, id, (Employee) cached.get())
+                        : BatchItemResult.notFound(index, id);
+            } else if (fromSnapshot.isPresent()) {
+                results[index] = BatchItemResult.found(index, id, fromSnapshot.get());
+            } else {
+                misses.add(index);
+            }
+        }
+        io.github.resilience4j.retry.Retry retry = retryRegistry.retry("employeeService");
+        List<BatchItemResult> fetched = batchFanOut.map(misses, (i, index) -> {
+            String id = distinctIds.get(index);
+            Employee employee = retry.executeCallable(() -> fetchEmployeeById(id));
+            if (employeeById != null) {
+                employeeById.put(id, employee);
+            }
+            return employee != null ? BatchItemResult.found(index, id, employee) : BatchItemResult.notFound(index, id);
+        }, (i, index, ex) -> {
+            logger.warn("Error while looking up employee id {}. ERROR : {}", distinctIds.get(index), ex.toString());
+            return BatchItemResult.failed(index, distinctIds.get(index), ex.toString());
+        });
+        fetched.forEach(result -> results[result.getIndex()] = result);
+        logger.debug("Looked up {} employee ids, {} from upstream", distinctIds.size(), misses.size());
+        return EmployeeLookupResponse.of(Arrays.asList(results));
+    }
+
+    /**
+     * This method is used to fetch the full employee list from upstream and publish it as the new snapshot.
+     * Concurrent loads, whether from a cold start, a cache miss or the refresher, share one upstream call.
+     * @return
+     * @throws Exception
+     */
+    private EmployeeSnapshot loadSnapshot() throws Exception {
+        return singleFlight.execute("allEmployees", "", () -> {
+            List<Employee> employees = streamAllEmployees(EmployeeStreamParser::readAll);
+            logger.debug("Employees are fetched successfully and size is {}", employees.size());
+            return employeeSnapshotStore.publish(employees);
+        });
+    }
+
+    /**
+     * This method is used to write creates and deletes upstream confirmed through to the snapshot, which updates the
+     * cached results. When no snapshot is loaded, as with employee.snapshot.enabled=false, the cached aggregate results
+     * are dropped instead, so the next read computes them again.
+     * @param created
+     * @param deletedIds
+     */
+    private void writeThrough(Collection<Employee> created, Collection<Integer> deletedIds) {
+        RosterDiff diff = employeeSnapshotStore.applyLocalChanges(created, deletedIds);
+        if (diff.isInitial()) {
+            AGGREGATE_CACHES.stream().map(cacheManager::getCache).filter(Objects::nonNull).forEach(Cache::clear);
+        }
+    }
+
+    /**
+     * This method is used to write an employee upstream confirmed through to the employeeById cache, so it is read
+     * back before upstream reflects it. A deleted employee is cached as not found.
+     * @param id
+     * @param employee the created employee, null for a deleted one
+     */
+    private void cacheEmployeeById(String id, Employee employee) {
+        Cache employeeById = cacheManager.getCache("employeeById");
+        if (employeeById != null) {
+            employeeById.put(id, employee);
+        }
+    }
+
+    /**
+     * This method is used to fetch one employee from upstream, sharing the call with concurrent requests for the id.
+     * @param id
+     * @return
+     * @throws Exception
+     */
+    private Employee fetchEmployeeById(String id) throws Exception {
+        SingleEmployeeResponse employeeResponse = singleFlight.execute("employeeById", id, () -> {
+            Optional<String> response = httpRestUtil.callRestAPI(upstreamUrls.employee(id),
+                    null, AppConstants.GET, Optional.empty());
+            return upstreamMetrics.read(SingleEmployeeResponse.class,
+                    () -> objectMapper.readValue(response.get(), SingleEmployeeResponse.class));
+        });
+        return employeeResponse.getData();
+    }
+
+    /**
+     * This method is used to get the employee a batch delete refers to, from the snapshot or else from upstream.
+     * @param snapshot
+     * @param id
+     * @return
+     * @throws Exception
+     */
+    private Employee findForDelete(Optional<EmployeeSnapshot> snapshot, String id) throws Exception {
+        Optional<Employee> employee = findInSnapshot(snapshot, id);
+        return employee.isPresent() ? employee.get() : fetchEmployeeById(id);
+    }
+
+    /**
+     * This method is used to find the employee in the snapshot, empty when it is not there or not loaded.
+     * @param snapshot
+     * @param id
+     * @return
+     */
+    private static Optional<Employee> findInSnapshot(Optional<EmployeeSnapshot> snapshot, String id) {
+        try {
+            return snapshot.flatMap(current -> current.findById(Integer.parseInt(id)));
+        } catch (NumberFormatException ex) {
+            //not an id the snapshot can hold, upstream decides
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method is used to create the employee upstream.
+     * @param employeeInput
+     * @return the created employee, null when upstream did not return one
+     * @throws Exception
+     */
+    private Employee postEmployee(Map<String, Object> employeeInput) throws Exception {
+        Optional<String> empInputs = Optional.of(objectMapper.writeValueAsString(employeeInput));
+        logger.debug("Creating employee using below inputs : {}", empInputs);
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        Optional<String> response = httpRestUtil.callRestAPI(upstreamUrls.createEmployee(),
+                httpHeaders, AppConstants.POST , empInputs);
+        SingleEmployeeResponse employeeResponse = upstreamMetrics.read(SingleEmployeeResponse.class,
+                () -> objectMapper.readValue(response.get(), SingleEmployeeResponse.class));
+        return employeeResponse.getData();
+    }
+
+    /**
+     * This method is used to delete the employee upstream.
+     * @param id
+     * @return whether upstream confirmed the delete
+     * @throws Exception
+     */
+    private boolean callDeleteEmployee(String id) throws Exception {
+        Optional<String> response = httpRestUtil.callRestAPI(upstreamUrls.deleteEmployee(id),
+                null, AppConstants.DELETE, Optional.empty());
+        String status = "";
+        if (response.isPresent()) {
+            //parse the response of delete API
+            JsonNode jsonNode = upstreamMetrics.read(JsonNode.class, () -> objectMapper.readTree(response.get()));
+            status = jsonNode.get(AppConstants.STATUS).asText();
+        }
+        return status.equalsIgnoreCase(AppConstants.SUCCESS);
+    }
+
+    /**
+     * This method is used to read the upstream employee list with the given reader as it streams in.
+     * @param reader
+     * @return
+     */
+    private <T> T streamAllEmployees(ResponseBodyReader<T> reader) {
+        return httpRestUtil.streamRestAPI(upstreamUrls.allEmployees(), upstreamMetrics.timed(EmployeesResponse.class, reader));
+    }
+
+    /**
+     * This method is used to get the in-memory snapshot, loading it from upstream on first use and once it is older
+     * than the maximum staleness. In between, the refresher replaces it in the background.
+     * @return
+     * @throws Exception
+     */
+    private EmployeeSnapshot getSnapshot() throws Exception {
+        Optional<EmployeeSnapshot> snapshot = employeeSnapshotStore.current();
+        if (snapshot.isPresent()) {
+            return snapshot.get();
+        }
+        return loadSnapshot();
+    }
+
     /**
      * This is fallback method for getAllEmployees.
      * @param t
      * @return
      */
     public List<Employee> getAllEmployeesMock(Throwable t) {
-        return employeeMockDataProvider.getAllEmployees();
+        return employeeSnapshotStore.lastGood().map(EmployeeSnapshot::getEmployees)
+                .orElseGet(employeeMockDataProvider::getAllEmployees);
+    }
+
+    /**
+     * This is fallback method for getEmployeesPage
+     * @param after
+     * @param limit
+     * @param t
+     * @return
+     */
+    public List<Employee> getEmployeesPageMock(int after, int limit, Throwable t) {
+        return employeeSnapshotStore.lastGood().map(snapshot -> snapshot.getEmployees(after, limit))
+                .orElseGet(() -> NameIndex.of(employeeMockDataProvider.getAllEmployees()).page(after, limit));
     }
 
     /**
      * This is fallback Method for getEmployeesByNameSearch
      * @param searchString
+     * @param ignoreCase
+     * @param limit
+     * @param after
      * @param t
      * @return
      */
-    public List<Employee> getEmployeesByNameSearchMock(String searchString, Throwable t) {
-        return employeeMockDataProvider.getEmployeeByName(searchString);
+    public List<Employee> getEmployeesByNameSearchMock(String searchString, boolean ignoreCase, int limit, int after, Throwable t) {
+        return employeeSnapshotStore.lastGood()
+                .map(snapshot -> snapshot.searchByName(NameQuery.of(searchString, ignoreCase, limit, after)))
+                .orElseGet(() -> employeeMockDataProvider.getEmployeeByName(searchString));
     }
 
     /**
@@ -181,9 +617,12 @@ public class EmployeeServiceImpl implements IEmployeeService{
      */
     public Employee getEmployeeByIdMock(String id, Throwable t) {
         try {
-            return employeeMockDataProvider.getEmployeeById(Integer.parseInt(id));
+            int employeeId = Integer.parseInt(id);
+            Optional<EmployeeSnapshot> lastGood = employeeSnapshotStore.lastGood();
+            return lastGood.isPresent() ? lastGood.get().findById(employeeId).orElse(null)
+                    : employeeMockDataProvider.getEmployeeById(employeeId);
         } catch (Exception e) {
-            logger.error("Error while getting employee",id);
+            logger.error("Error while getting employee {}", id);
             return employeeMockDataProvider.getEmployeeById(Integer.parseInt("0"));
         }
     }
@@ -194,7 +633,8 @@ public class EmployeeServiceImpl implements IEmployeeService{
      * @return
      */
     public Integer getHighestSalaryOfEmployeesMock(Throwable t) {
-        return employeeMockDataProvider.getHighestEmployeeSalary();
+        return employeeSnapshotStore.lastGood().map(EmployeeSnapshot::getHighestSalary)
+                .orElseGet(employeeMockDataProvider::getHighestEmployeeSalary);
     }
 
     /**
@@ -203,7 +643,32 @@ public class EmployeeServiceImpl implements IEmployeeService{
      * @return
      */
     public List<String> getTopTenHighestEarningEmployeeNamesMock(Throwable t) {
-        return employeeMockDataProvider.getTopTenNames();
+        return employeeSnapshotStore.lastGood()
+                .map(snapshot -> snapshot.getTopEarnerNames(AppConstants.TOP_EARNERS_LIMIT))
+                .orElseGet(employeeMockDataProvider::getTopTenNames);
+    }
+
+    /**
+     * This is fallback method for getTopEarners
+     * @param n
+     * @param t
+     * @return
+     */
+    public List<Employee> getTopEarnersMock(int n, Throwable t) {
+        return employeeSnapshotStore.lastGood().map(snapshot -> snapshot.getTopEarners(n))
+                .orElseGet(() -> employeeMockDataProvider.getTopEarners(n));
+    }
+
+    /**
+     * This is fallback method for getSalaryStats
+     * @param t
+     * @return
+     */
+    public SalaryStats getSalaryStatsMock(Throwable t) {
+        return employeeSnapshotStore.lastGood()
+                .map(snapshot -> SalaryStats.of(snapshot.getSalaryAggregate(statsBucketWidth, statsAgeBands), snapshot))
+                .orElseGet(() -> SalaryStats.of(SalaryAggregate.of(employeeMockDataProvider.getAllEmployees(),
+                        statsBucketWidth, statsAgeBands)));
     }
 
     /**
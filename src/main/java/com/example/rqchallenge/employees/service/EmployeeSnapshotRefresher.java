@@ -0,0 +1,82 @@
+package com.example.rqchallenge.employees.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * This class refreshes the in-memory employee snapshot from upstream in the background, well before it reaches
+ * employee.snapshot.max-staleness-ms, so readers are served the current snapshot instead of waiting for upstream.
+ * Each refresh starts interval-ms, give or take a random jitter-ms, after the previous one ended, so instances started
+ * together spread their upstream fetches. A failed refresh keeps serving the last good snapshot.
+ */
+@Component
+@ConditionalOnExpression("${employee.snapshot.enabled:true} and ${employee.snapshot.refresh.enabled:true}")
+public class EmployeeSnapshotRefresher implements SchedulingConfigurer {
+
+    public static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotRefresher.class);
+
+    @Autowired
+    private IEmployeeService employeeService;
+
+    @Value("${employee.snapshot.refresh.initial-delay-ms:0}")
+    long initialDelayMs;
+
+    @Value("${employee.snapshot.refresh.interval-ms:30000}")
+    long intervalMs = 30000;
+
+    @Value("${employee.snapshot.refresh.jitter-ms:5000}")
+    long jitterMs = 5000;
+
+    @Value("${employee.snapshot.max-staleness-ms:600000}")
+    long maxStalenessMs = 600000;
+
+    @PostConstruct
+    public void validate() {
+        if (jitterMs < 0 || jitterMs >= intervalMs) {
+            throw new IllegalStateException("employee.snapshot.refresh.jitter-ms must be at least 0 and below interval-ms");
+        }
+        if (intervalMs + jitterMs >= maxStalenessMs) {
+            throw new IllegalStateException("employee.snapshot.max-staleness-ms must be above refresh.interval-ms plus"
+                    + " refresh.jitter-ms, otherwise readers wait for upstream between refreshes");
+        }
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addTriggerTask(this::refresh, this::nextRefresh);
+    }
+
+    public void refresh() {
+        try {
+            employeeService.refreshSnapshot();
+        } catch (Exception ex) {
+            logger.warn("Error while refreshing employee snapshot, keeping the previous one. ERROR : {}", ex.toString());
+        }
+    }
+
+    /**
+     * This method is used to get the time of the next refresh, interval-ms plus or minus up to jitter-ms after the
+     * previous one completed.
+     * @param triggerContext
+     * @return
+     */
+    Date nextRefresh(TriggerContext triggerContext) {
+        Date lastCompletion = triggerContext.lastCompletionTime();
+        if (lastCompletion == null) {
+            return new Date(System.currentTimeMillis() + initialDelayMs);
+        }
+        long jitter = ThreadLocalRandom.current().nextLong(-jitterMs, jitterMs + 1);
+        return new Date(lastCompletion.getTime() + intervalMs + jitter);
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.rqchallenge.employees.service;
 
+import com.example.rqchallenge.employees.entities.BatchItemResult;
 import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
 
-import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface IEmployeeService {
 
-    List<Employee> getAllEmployees() throws IOException;
+    List<Employee> getAllEmployees() throws Exception;
 
-    List<Employee> getEmployeesByNameSearch(String searchString) throws Exception;
+    void forEachEmployee(Consumer<Employee> consumer) throws Exception;
+
+    void refreshSnapshot() throws Exception;
+
+    List<Employee> getEmployeesPage(int after, int limit) throws Exception;
+
+    List<Employee> getEmployeesByNameSearch(String searchString, boolean ignoreCase, int limit, int after) throws Exception;
 
     Employee getEmployeeById(String id) throws Exception;
 
@@ -18,7 +27,17 @@ public interface IEmployeeService {
 
     List<String> getTopTenHighestEarningEmployeeNames() throws Exception;
 
+    List<Employee> getTopEarners(int n) throws Exception;
+
+    SalaryStats getSalaryStats() throws Exception;
+
     Employee createEmployee(Map<String, Object> employeeInput) throws Exception;
 
     String deleteEmployeeById(String id) throws Exception;
+
+    List<BatchItemResult> createEmployees(List<Map<String, Object>> employeeInputs) throws Exception;
+
+    List<BatchItemResult> deleteEmployeesById(List<String> ids) throws Exception;
+
+    EmployeeLookupResponse lookupEmployeesById(List<String> ids) throws Exception;
 }
@@ -0,0 +1,40 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.entities.BatchItemResult;
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+public interface IReactiveEmployeeService {
+
+    Flux<Employee> getAllEmployees();
+
+    Flux<Employee> getEmployeesPage(int after, int limit);
+
+    Flux<Employee> getEmployeesByNameSearch(String searchString, boolean ignoreCase, int limit, int after);
+
+    Mono<Employee> getEmployeeById(String id);
+
+    Mono<Integer> getHighestSalaryOfEmployees();
+
+    Flux<String> getTopTenHighestEarningEmployeeNames();
+
+    Flux<Employee> getTopEarners(int n);
+
+    Mono<SalaryStats> getSalaryStats();
+
+    Mono<Employee> createEmployee(Map<String, Object> employeeInput);
+
+    Mono<String> deleteEmployeeById(String id);
+
+    Flux<BatchItemResult> createEmployees(List<Map<String, Object>> employeeInputs);
+
+    Flux<BatchItemResult> deleteEmployeesById(List<String> ids);
+
+    Mono<EmployeeLookupResponse> lookupEmployeesById(List<String> ids);
+}
@@ -0,0 +1,595 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.employees.entities.BatchItemResult;
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.EmployeesResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import com.example.rqchallenge.employees.entities.SingleEmployeeResponse;
+import com.example.rqchallenge.employees.store.EmployeeSnapshot;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.store.NameIndex;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.store.SalaryAggregate;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.example.rqchallenge.employees.utils.EmployeeMockDataProvider;
+import com.example.rqchallenge.employees.utils.SingleFlight;
+import com.example.rqchallenge.employees.utils.UpstreamConcurrencyLimiter;
+import com.example.rqchallenge.employees.utils.UpstreamMetrics;
+import com.example.rqchallenge.employees.utils.UpstreamUrls;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.github.resilience4j.reactor.retry.RetryOperator;
+import io.github.resilience4j.retry.RetryRegistry;
+import io.github.resilience4j.retry.annotation.Retry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking implementation of the employee service. Upstream calls go through the pooled
+ * {@link WebClient}, so no thread is held while waiting on upstream.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveEmployeeServiceImpl implements IReactiveEmployeeService {
+
+    public static final Logger logger = LoggerFactory.getLogger(ReactiveEmployeeServiceImpl.class);
+
+    @Autowired
+    WebClient employeeWebClient;
+
+    @Autowired
+    EmployeeSnapshotStore employeeSnapshotStore;
+
+    @Autowired
+    EmployeeMockDataProvider employeeMockDataProvider;
+
+    @Autowired
+    RetryRegistry retryRegistry;
+
+    @Autowired
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    BulkheadRegistry bulkheadRegistry;
+
+    @Autowired
+    UpstreamMetrics upstreamMetrics;
+
+    @Autowired
+    UpstreamUrls upstreamUrls;
+
+    @Autowired
+    UpstreamConcurrencyLimiter upstreamConcurrencyLimiter;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    SingleFlight singleFlight;
+
+    @Value("${employee.batch.concurrency:16}")
+    int batchConcurrency = 16;
+
+    @Value("${employee.stats.histogram-bucket-width:50000}")
+    int statsBucketWidth = 50000;
+
+    @Value("${employee.stats.age-bands:25,35,45,55,65}")
+    int[] statsAgeBands = {25, 35, 45, 55, 65};
+
+    /**
+     * This API is used to get all the employees from data store
+     * @return
+     */
+    @Retry(name="employeeServiceImpl",fallbackMethod = "getAllEmployeesMock")
+    public Flux<Employee> getAllEmployees() {
+        return getSnapshot().flatMapIterable(EmployeeSnapshot::getEmployees);
+    }
+
+    /**
+     * This method is used to get a page of the employees in id order, served from the id-ordered snapshot.
+     * @param after id of the last employee of the previous page, {@link NameQuery#FROM_START} for the first page
+     * @param limit maximum number of employees to return, {@link NameQuery#UNLIMITED} for all
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getEmployeesPageMock")
+    public Flux<Employee> getEmployeesPage(int after, int limit) {
+        return getSnapshot().flatMapIterable(snapshot -> snapshot.getEmployees(after, limit));
+    }
+
+    /**
+     * This Method is used to get all employees whose name contains input string, in id order.
+     * @param searchString
+     * @param ignoreCase
+     * @param limit maximum number of employees to return, {@link NameQuery#UNLIMITED} for all
+     * @param after id of the last match of the previous page, {@link NameQuery#FROM_START} for the first page
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getEmployeesByNameSearchMock")
+    public Flux<Employee> getEmployeesByNameSearch(String searchString, boolean ignoreCase, int limit, int after) {
+        logger.debug("Searching for employees whose name contains {}", searchString);
+        return getSnapshot().flatMapIterable(snapshot -> snapshot.searchByName(NameQuery.of(searchString, ignoreCase, limit, after)));
+    }
+
+    /**
+     * This method is used to get the Employee details by ID.
+     * @param id
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getEmployeeByIdMock")
+    public Mono<Employee> getEmployeeById(String id) {
+        logger.debug("Searching for {} employee", id);
+        return fetchEmployeeById(id);
+    }
+
+    /**
+     * This method is used to get employee's Highest salary
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getHighestSalaryOfEmployeesMock")
+    public Mono<Integer> getHighestSalaryOfEmployees() {
+        return getSnapshot().flatMap(snapshot -> Mono.justOrEmpty(snapshot.getHighestSalary()));
+    }
+
+    /**
+     * This Method is used to get the top ten Highest Earning Employee Names list
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getTopTenHighestEarningEmployeeNamesMock")
+    public Flux<String> getTopTenHighestEarningEmployeeNames() {
+        return getSnapshot().flatMapIterable(snapshot -> snapshot.getTopEarnerNames(AppConstants.TOP_EARNERS_LIMIT));
+    }
+
+    /**
+     * This method is used to get the n highest earning employees
+     * @param n
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getTopEarnersMock")
+    public Flux<Employee> getTopEarners(int n) {
+        return getSnapshot().flatMapIterable(snapshot -> snapshot.getTopEarners(n));
+    }
+
+    /**
+     * This method is used to get the salary statistics of the roster, aggregated in one pass over the snapshot.
+     * They are kept in the salaryStats cache the servlet service uses, which follows creates, deletes and refreshes.
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "getSalaryStatsMock")
+    public Mono<SalaryStats> getSalaryStats() {
+        return Mono.defer(() -> {
+            Cache cache = cacheManager.getCache("salaryStats");
+            SalaryStats cached = cache == null ? null : cache.get(SimpleKey.EMPTY, SalaryStats.class);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            //aggregating walks the whole roster, so it runs off the event loop
+            return getSnapshot()
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(snapshot -> SalaryStats.of(snapshot.getSalaryAggregate(statsBucketWidth, statsAgeBands), snapshot))
+                    .doOnNext(stats -> {
+                        if (cache != null) {
+                            cache.put(SimpleKey.EMPTY, stats);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * This method is used to create a new Employee
+     * @param employeeInput
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "createEmployeeMock")
+    public Mono<Employee> createEmployee(Map<String, Object> employeeInput) {
+        //writing through copies the snapshot and updates the caches, so it runs off the event loop
+        return postEmployee(employeeInput)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(employee -> {
+                    employeeSnapshotStore.applyLocalChanges(List.of(employee), List.of());
+                    cacheEmployeeById(String.valueOf(employee.getId()), employee);
+                });
+    }
+
+    /**
+     * This method is used to delete the employee by using ID. The employee is taken from the in-memory snapshot when
+     * it is there, which also holds employees created here that upstream does not list yet.
+     * @param id
+     * @return
+     */
+    @Retry(name="employeeService",fallbackMethod = "deleteEmployeeByIdMock")
+    public Mono<String> deleteEmployeeById(String id) {
+        //we need employee of this ID
+        return Mono.defer(() -> findForDelete(employeeSnapshotStore.current(), id)).flatMap(employee -> callDeleteEmployee(id)
+                .filter(deleted -> deleted)
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(deleted -> {
+                    employeeSnapshotStore.applyLocalChanges(List.of(), List.of(employee.getId()));
+                    cacheEmployeeById(id, null);
+                })
+                .map(deleted -> employee.getName()));
+    }
+
+    /**
+     * This method is used to create a batch of employees. At most employee.batch.concurrency items of the batch are
+     * posted to upstream at once and each is retried on its own. A failed item is reported in its result instead of
+     * failing the batch. The snapshot is updated once for the whole batch.
+     * @param employeeInputs
+     * @return one result per input, in input order
+     */
+    public Flux<BatchItemResult> createEmployees(List<Map<String, Object>> employeeInputs) {
+        return Flux.range(0, employeeInputs.size())
+                .flatMapSequential(index -> postEmployee(employeeInputs.get(index))
+                        .transformDeferred(RetryOperator.of(retryRegistry.retry("employeeService")))
+                        .map(employee -> BatchItemResult.created(index, employee))
+                        .defaultIfEmpty(BatchItemResult.failed(index, null, "Upstream did not return the created employee"))
+                        .onErrorResume(ex -> {
+                            logger.warn("Error while creating employee {} of the batch. ERROR : {}", index, ex.toString());
+                            return Mono.just(BatchItemResult.failed(index, null, ex.toString()));
+                        }), batchConcurrency)
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(results -> {
+                    List<Employee> created = results.stream().map(BatchItemResult::getEmployee)
+                            .filter(Objects::nonNull).collect(Collectors.toList());
+                    employeeSnapshotStore.applyLocalChanges(created, List.of());
+                    created.forEach(employee -> cacheEmployeeById(String.valueOf(employee.getId()), employee));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * This method is used to delete a batch of employees. The name of each employee is taken from the in-memory
+     * snapshot when it is there, so most items need only the upstream DELETE. At most employee.batch.concurrency items
+     * of the batch are deleted at once and each is retried on its own. The snapshot is updated once for the whole batch.
+     * @param ids
+     * @return one result per id, in input order
+     */
+    public Flux<BatchItemResult> deleteEmployeesById(List<String> ids) {
+        Optional<EmployeeSnapshot> snapshot = employeeSnapshotStore.current();
+        return Flux.range(0, ids.size())
+                .flatMapSequential(index -> {
+                    String id = ids.get(index);
+                    return findForDelete(snapshot, id)
+                            .transformDeferred(RetryOperator.of(retryRegistry.retry("employeeService")))
+                            .flatMap(employee -> callDeleteEmployee(id)
+                                    .transformDeferred(RetryOperator.of(retryRegistry.retry("employeeService")))
+                                    .map(deleted -> deleted ? BatchItemResult.deleted(index, id, employee.getName())
+                                            : BatchItemResult.failed(index, id, "Upstream did not confirm the delete")))
+                            .defaultIfEmpty(BatchItemResult.notFound(index, id))
+                            .onErrorResume(ex -> {
+                                logger.warn("Error while deleting employee id {} of the batch. ERROR : {}", id, ex.toString());
+                                return Mono.just(BatchItemResult.failed(index, id, ex.toString()));
+                            });
+                }, batchConcurrency)
+                .collectList()
+                .publishOn(Schedulers.boundedElastic())
+                .doOnNext(results -> {
+                    List<Integer> deleted = results.stream().filter(result -> result.getStatus() == HttpStatus.OK.value())
+                            .map(result -> Integer.valueOf(result.getId())).collect(Collectors.toList());
+                    employeeSnapshotStore.applyLocalChanges(List.of(), deleted);
+                    Cache employeeById = cacheManager.getCache("employeeById");
+                    if (employeeById != null) {
+                        ids.forEach(employeeById::evict);
+                    }
+                    deleted.forEach(id -> cacheEmployeeById(String.valueOf(id), null));
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    /**
+     * This method is used to look up many employees by id in one call. Ids are deduplicated. Each id is answered from
+     * the employeeById cache, else from the in-memory snapshot, and only the remaining ids are fetched from upstream,
+     * at most employee.batch.concurrency at once. Fetched answers, found or not, are cached like the servlet service
+     * caches them.
+     * @param ids
+     * @return
+     */
+    public Mono<EmployeeLookupResponse> lookupEmployeesById(List<String> ids) {
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Cache employeeById = cacheManager.getCache("employeeById");
+        Optional<EmployeeSnapshot> snapshot = employeeSnapshotStore.current();
+        return Flux.range(0, distinctIds.size())
+                .flatMapSequential(index -> {
+                    String id = distinctIds.get(index);
+                    Cache.ValueWrapper cached = employeeById != null ? employeeById.get(id) : null;
+                    if (cached != null) {
+                        return Mono.just(cached.get() != null ? BatchItemResult.found(index, id, (Employee) cached.get())
+                                : BatchItemResult.notFound(index, id));
+                    }
+                    return findInSnapshot(snapshot, id).map(Mono::just)
+                            .orElseGet(() -> fetchEmployeeById(id)
+                                    .transformDeferred(RetryOperator.of(retryRegistry.retry("employeeService")))
+                                    .map(Optional::of)
+                                    .defaultIfEmpty(Optional.empty())
+                                    .doOnNext(employee -> cacheEmployeeById(id, employee.orElse(null)))
+                                    .filter(Optional::isPresent)
+                                    .map(Optional::get))
+                            .map(employee -> BatchItemResult.found(index, id, employee))
+                            .defaultIfEmpty(BatchItemResult.notFound(index, id))
+                            .onErrorResume(ex -> {
+                                logger.warn("Error while looking up employee id {}. ERROR : {}", id, ex.toString());
+                                return Mono.just(BatchItemResult.failed(index, id, ex.toString()));
+                            });
+                }, batchConcurrency)
+                .collectList()
+                .map(EmployeeLookupResponse::of);
+    }
+
+    /**
+     * This method is used to write an employee to the employeeById cache the servlet service reads, so both read back
+     * creates and deletes before upstream reflects them. A deleted or unknown employee is cached as not found.
+     * @param id
+     * @param employee null for a deleted or unknown employee
+     */
+    private void cacheEmployeeById(String id, Employee employee) {
+        Cache employeeById = cacheManager.getCache("employeeById");
+        if (employeeById != null) {
+            employeeById.put(id, employee);
+        }
+    }
+
+    /**
+     * This method is used to fetch one employee from upstream.
+     * @param id
+     * @return
+     */
+    private Mono<Employee> fetchEmployeeById(String id) {
+        String url = upstreamUrls.employee(id);
+        return guarded(AppConstants.GET, url, employeeWebClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(SingleEmployeeResponse.class))
+                .flatMap(response -> Mono.justOrEmpty(response.getData()));
+    }
+
+    /**
+     * This method is used to get the employee a batch delete refers to, from the snapshot or else from upstream.
+     * @param snapshot
+     * @param id
+     * @return
+     */
+    private Mono<Employee> findForDelete(Optional<EmployeeSnapshot> snapshot, String id) {
+        return findInSnapshot(snapshot, id).map(Mono::just).orElseGet(() -> fetchEmployeeById(id));
+    }
+
+    /**
+     * This method is used to find the employee in the snapshot, empty when it is not there or not loaded.
+     * @param snapshot
+     * @param id
+     * @return
+     */
+    private static Optional<Employee> findInSnapshot(Optional<EmployeeSnapshot> snapshot, String id) {
+        try {
+            return snapshot.flatMap(current -> current.findById(Integer.parseInt(id)));
+        } catch (NumberFormatException ex) {
+            //not an id the snapshot can hold, upstream decides
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * This method is used to create the employee upstream.
+     * @param employeeInput
+     * @return
+     */
+    private Mono<Employee> postEmployee(Map<String, Object> employeeInput) {
+        logger.debug("Creating employee using inputs : {}", employeeInput);
+        String url = upstreamUrls.createEmployee();
+        return guarded(AppConstants.POST, url, employeeWebClient.post()
+                .uri(url)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employeeInput)
+                .retrieve()
+                .bodyToMono(SingleEmployeeResponse.class))
+                .flatMap(response -> Mono.justOrEmpty(response.getData()));
+    }
+
+    /**
+     * This method is used to delete the employee upstream.
+     * @param id
+     * @return whether upstream confirmed the delete
+     */
+    private Mono<Boolean> callDeleteEmployee(String id) {
+        String url = upstreamUrls.deleteEmployee(id);
+        return guarded(AppConstants.DELETE, url, employeeWebClient.delete()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(JsonNode.class))
+                .map(jsonNode -> jsonNode.path(AppConstants.STATUS).asText().equalsIgnoreCase(AppConstants.SUCCESS))
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * This method is used to fetch the full employee list from upstream.
+     * @return
+     */
+    private Mono<List<Employee>> fetchAllEmployees() {
+        String url = upstreamUrls.allEmployees();
+        return guarded(AppConstants.GET, url, employeeWebClient.get()
+                .uri(url)
+                .retrieve()
+                .bodyToMono(EmployeesResponse.class))
+                .map(response -> response.getData() != null ? response.getData() : Collections.<Employee>emptyList());
+    }
+
+    /**
+     * This method is used to run an upstream call through the employeeUpstream bulkhead and circuit breaker, as
+     * {@link com.example.rqchallenge.employees.utils.HttpRestUtil} does for the blocking service, then through a permit
+     * of the adaptive upstream limit, timing the calls that get through. WebClient decodes the body inside the call,
+     * so its time includes deserialization.
+     * @param method
+     * @param url
+     * @param call
+     * @return
+     */
+    private <T> Mono<T> guarded(String method, String url, Mono<T> call) {
+        //the roster read takes as long as the roster, so it says nothing about upstream load
+        boolean sampleLatency = !url.equals(upstreamUrls.allEmployees());
+        Mono<T> limited = upstreamConcurrencyLimiter.acquireAsync()
+                .flatMap(permit -> upstreamMetrics.timed(method, url, call)
+                        .doOnSuccess(result -> permit.succeeded(sampleLatency))
+                        .doOnError(permit::failed)
+                        .doOnCancel(permit::cancelled));
+        return limited.transformDeferred(BulkheadOperator.of(bulkheadRegistry.bulkhead(AppConstants.EMPLOYEE_UPSTREAM)))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreakerRegistry.circuitBreaker(AppConstants.EMPLOYEE_UPSTREAM)));
+    }
+
+    /**
+     * This method is used to get the in-memory snapshot, loading it from upstream on first use and once it is older
+     * than the maximum staleness. Concurrent loads share one upstream call. Publishing builds the indexes, writes the
+     * snapshot file and runs the snapshot listeners, so it runs on a bounded elastic thread instead of the event loop.
+     * @return
+     */
+    private Mono<EmployeeSnapshot> getSnapshot() {
+        return Mono.defer(() -> employeeSnapshotStore.current()
+                .map(Mono::just)
+                .orElseGet(() -> singleFlight.executeAsync("allEmployees", "", () -> fetchAllEmployees()
+                        .publishOn(Schedulers.boundedElastic())
+                        .map(employeeSnapshotStore::publish))));
+    }
+
+    /**
+     * This is fallback method for getAllEmployees.
+     * @param t
+     * @return
+     */
+    public Flux<Employee> getAllEmployeesMock(Throwable t) {
+        return Flux.fromIterable(employeeSnapshotStore.lastGood().map(EmployeeSnapshot::getEmployees)
+                .orElseGet(employeeMockDataProvider::getAllEmployees));
+    }
+
+    /**
+     * This is fallback method for getEmployeesPage
+     * @param after
+     * @param limit
+     * @param t
+     * @return
+     */
+    public Flux<Employee> getEmployeesPageMock(int after, int limit, Throwable t) {
+        return Flux.fromIterable(employeeSnapshotStore.lastGood().map(snapshot -> snapshot.getEmployees(after, limit))
+                .orElseGet(() -> NameIndex.of(employeeMockDataProvider.getAllEmployees()).page(after, limit)));
+    }
+
+    /**
+     * This is fallback Method for getEmployeesByNameSearch
+     * @param searchString
+     * @param ignoreCase
+     * @param limit
+     * @param after
+     * @param t
+     * @return
+     */
+    public Flux<Employee> getEmployeesByNameSearchMock(String searchString, boolean ignoreCase, int limit, int after, Throwable t) {
+        return Flux.fromIterable(employeeSnapshotStore.lastGood()
+                .map(snapshot -> snapshot.searchByName(NameQuery.of(searchString, ignoreCase, limit, after)))
+                .orElseGet(() -> employeeMockDataProvider.getEmployeeByName(searchString)));
+    }
+
+    /**
+     * This is fallback method for getEmployeeById;
+     * @param id
+     * @param t
+     * @return
+     */
+    public Mono<Employee> getEmployeeByIdMock(String id, Throwable t) {
+        try {
+            int employeeId = Integer.parseInt(id);
+            Optional<EmployeeSnapshot> lastGood = employeeSnapshotStore.lastGood();
+            return lastGood.isPresent() ? Mono.justOrEmpty(lastGood.get().findById(employeeId))
+                    : Mono.just(employeeMockDataProvider.getEmployeeById(employeeId));
+        } catch (Exception e) {
+            logger.error("Error while getting employee {}", id);
+            return Mono.just(employeeMockDataProvider.getEmployeeById(0));
+        }
+    }
+
+    /**
+     * This is fallback method for getHighestSalaryOfEmployees
+     * @param t
+     * @return
+     */
+    public Mono<Integer> getHighestSalaryOfEmployeesMock(Throwable t) {
+        return Mono.just(employeeSnapshotStore.lastGood().map(EmployeeSnapshot::getHighestSalary)
+                .orElseGet(employeeMockDataProvider::getHighestEmployeeSalary));
+    }
+
+    /**
+     * This is fallback method for getTopTenHighestEarningEmployeeNames
+     * @param t
+     * @return
+     */
+    public Flux<String> getTopTenHighestEarningEmployeeNamesMock(Throwable t) {
+        return Flux.fromIterable(employeeSnapshotStore.lastGood()
+                .map(snapshot -> snapshot.getTopEarnerNames(AppConstants.TOP_EARNERS_LIMIT))
+                .orElseGet(employeeMockDataProvider::getTopTenNames));
+    }
+
+    /**
+     * This is fallback method for getTopEarners
+     * @param n
+     * @param t
+     * @return
+     */
+    public Flux<Employee> getTopEarnersMock(int n, Throwable t) {
+        return Flux.fromIterable(employeeSnapshotStore.lastGood().map(snapshot -> snapshot.getTopEarners(n))
+                .orElseGet(() -> employeeMockDataProvider.getTopEarners(n)));
+    }
+
+    /**
+     * This is fallback method for getSalaryStats
+     * @param t
+     * @return
+     */
+    public Mono<SalaryStats> getSalaryStatsMock(Throwable t) {
+        return Mono.just(employeeSnapshotStore.lastGood()
+                .map(snapshot -> SalaryStats.of(snapshot.getSalaryAggregate(statsBucketWidth, statsAgeBands), snapshot))
+                .orElseGet(() -> SalaryStats.of(SalaryAggregate.of(employeeMockDataProvider.getAllEmployees(),
+                        statsBucketWidth, statsAgeBands))));
+    }
+
+    /**
+     * This is fallback method for createEmployee
+     * @param emp
+     * @param t
+     * @return
+     */
+    public Mono<Employee> createEmployeeMock(Map<String, Object> emp, Throwable t) {
+        return Mono.just(employeeMockDataProvider.createEmployee(emp));
+    }
+
+    /**
+     * This is fallback method for deleteEmployeeById
+     * @param id
+     * @param t
+     * @return
+     */
+    public Mono<String> deleteEmployeeByIdMock(String id, Throwable t) {
+        return Mono.just(employeeMockDataProvider.deleteEmployeeById(id));
+    }
+}
@@ -0,0 +1,439 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Snapshot that stores the roster as primitive columns, one row per employee in id order:
+ * <ul>
+ *     <li>ids and salaries as int arrays, ages packed into a byte array;</li>
+ *     <li>names deduplicated into one char array addressed by offset, with the rows of every distinct name and a
+ *     trigram index over the distinct names like {@link NameIndex};</li>
+ *     <li>profile images deduplicated into a small dictionary;</li>
+ *     <li>row numbers ordered by salary, for O(1) highest salary and O(n) top earners.</li>
+ * </ul>
+ * Search and aggregates run over these arrays, and {@link Employee} objects are only created for the rows returned.
+ * Every returned object is a fresh copy. Local creates and deletes rebuild the columns, so this layout suits large,
+ * mostly read rosters.
+ */
+public final class ColumnarEmployeeSnapshot implements EmployeeSnapshot {
+
+    /**
+     * Marks an age that is null or does not fit a byte; the latter is kept in irregularAges.
+     */
+    private static final byte IRREGULAR_AGE = Byte.MIN_VALUE;
+
+    private static final int NONE = -1;
+
+    private final int[] ids;
+    private final int[] salaries;
+    private final byte[] ages;
+    private final Map<Integer, String> irregularAges;
+    private final int[] nameCodes;
+    private final char[] nameChars;
+    private final int[] nameOffsets;
+    private final int[] rowsByNameOffsets;
+    private final int[] rowsByName;
+    private final Map<Long, int[]> nameCodesByGram;
+    private final int[] profileImageCodes;
+    private final String[] profileImages;
+    private final int[] rowsBySalaryDesc;
+    private final Instant refreshedAt;
+
+    public ColumnarEmployeeSnapshot(Collection<Employee> employees, Instant refreshedAt) {
+        //a later employee with the same id replaces the earlier one, as in withAdded
+        Map<Integer, Employee> unique = new HashMap<>();
+        employees.forEach(employee -> unique.put(employee.getId(), employee));
+        Employee[] rows = unique.values().toArray(new Employee[0]);
+        Arrays.sort(rows, (left, right) -> Integer.compare(left.getId(), right.getId()));
+
+        int size = rows.length;
+        ids = new int[size];
+        salaries = new int[size];
+        ages = new byte[size];
+        irregularAges = new HashMap<>();
+        nameCodes = new int[size];
+        profileImageCodes = new int[size];
+        Map<String, Integer> nameDictionary = new HashMap<>();
+        StringBuilder names = new StringBuilder();
+        List<Integer> offsets = new ArrayList<>();
+        Map<String, Integer> profileImageDictionary = new LinkedHashMap<>();
+        for (int row = 0; row < size; row++) {
+            Employee employee = rows[row];
+            ids[row] = employee.getId();
+            salaries[row] = employee.getSalary();
+            ages[row] = packAge(row, employee.getAge());
+            nameCodes[row] = employee.getName() == null ? NONE : nameDictionary.computeIfAbsent(employee.getName(), name -> {
+                offsets.add(names.length());
+                names.append(name);
+                return offsets.size() - 1;
+            });
+            profileImageCodes[row] = employee.getProfileImage() == null ? NONE
+                    : profileImageDictionary.computeIfAbsent(employee.getProfileImage(), image -> profileImageDictionary.size());
+        }
+        nameChars = names.toString().toCharArray();
+        nameOffsets = new int[offsets.size() + 1];
+        for (int code = 0; code < offsets.size(); code++) {
+            nameOffsets[code] = offsets.get(code);
+        }
+        nameOffsets[offsets.size()] = nameChars.length;
+        profileImages = profileImageDictionary.keySet().toArray(new String[0]);
+
+        //rows of every name code, grouped by code and ascending within a code
+        int distinctNames = offsets.size();
+        rowsByNameOffsets = new int[distinctNames + 1];
+        for (int code : nameCodes) {
+            if (code != NONE) {
+                rowsByNameOffsets[code + 1]++;
+            }
+        }
+        for (int code = 0; code < distinctNames; code++) {
+            rowsByNameOffsets[code + 1] += rowsByNameOffsets[code];
+        }
+        rowsByName = new int[rowsByNameOffsets[distinctNames]];
+        int[] next = Arrays.copyOf(rowsByNameOffsets, distinctNames);
+        for (int row = 0; row < size; row++) {
+            if (nameCodes[row] != NONE) {
+                rowsByName[next[nameCodes[row]]++] = row;
+            }
+        }
+
+        nameCodesByGram = indexNameGrams();
+        rowsBySalaryDesc = sortBySalaryDesc(salaries);
+        this.refreshedAt = refreshedAt;
+    }
+
+    private ColumnarEmployeeSnapshot(ColumnarEmployeeSnapshot columns, Instant refreshedAt) {
+        ids = columns.ids;
+        salaries = columns.salaries;
+        ages = columns.ages;
+        irregularAges = columns.irregularAges;
+        nameCodes = columns.nameCodes;
+        nameChars = columns.nameChars;
+        nameOffsets = columns.nameOffsets;
+        rowsByNameOffsets = columns.rowsByNameOffsets;
+        rowsByName = columns.rowsByName;
+        nameCodesByGram = columns.nameCodesByGram;
+        profileImageCodes = columns.profileImageCodes;
+        profileImages = columns.profileImages;
+        rowsBySalaryDesc = columns.rowsBySalaryDesc;
+        this.refreshedAt = refreshedAt;
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        return new Rows();
+    }
+
+    @Override
+    public List<Employee> getEmployees(int after, int limit) {
+        int from = firstRowAfter(after);
+        int to = limit > 0 ? (int) Math.min((long) from + limit, ids.length) : ids.length;
+        return new Rows().subList(from, to);
+    }
+
+    @Override
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Optional<Employee> findById(int id) {
+        int row = Arrays.binarySearch(ids, id);
+        return row >= 0 ? Optional.of(materialize(row)) : Optional.empty();
+    }
+
+    @Override
+    public List<Employee> searchByName(NameQuery query) {
+        //match each candidate distinct name once; the rows of every name are in id order, so merging them through a
+        //heap yields matches in id order and stops as soon as the limit is reached
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Comparator.comparingInt(cursor -> rowsByName[cursor[0]]));
+        int firstRow = firstRowAfter(query.getAfter());
+        for (int code : candidateNameCodes(query.getSearchString())) {
+            int from = rowsByNameOffsets[code];
+            int to = rowsByNameOffsets[code + 1];
+            if (firstRow > 0) {
+                int slot = Arrays.binarySearch(rowsByName, from, to, firstRow);
+                from = slot >= 0 ? slot : -slot - 1;
+            }
+            if (from < to && nameMatches(code, query)) {
+                cursors.add(new int[]{from, to});
+            }
+        }
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        List<Employee> matches = new ArrayList<>();
+        while (!cursors.isEmpty() && matches.size() < limit) {
+            int[] cursor = cursors.poll();
+            matches.add(materialize(rowsByName[cursor[0]]));
+            if (++cursor[0] < cursor[1]) {
+                cursors.add(cursor);
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    @Override
+    public Integer getHighestSalary() {
+        return rowsBySalaryDesc.length == 0 ? null : salaries[rowsBySalaryDesc[0]];
+    }
+
+    @Override
+    public List<Employee> getTopEarners(int n) {
+        int count = Math.min(Math.max(n, 0), rowsBySalaryDesc.length);
+        List<Employee> topEarners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            topEarners.add(materialize(rowsBySalaryDesc[i]));
+        }
+        return Collections.unmodifiableList(topEarners);
+    }
+
+    @Override
+    public List<String> getTopEarnerNames(int n) {
+        int count = Math.min(Math.max(n, 0), rowsBySalaryDesc.length);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(name(rowsBySalaryDesc[i]));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Reads the salary and age columns, without creating the employees.
+     */
+    @Override
+    public SalaryAggregate getSalaryAggregate(int bucketWidth, int[] ageBounds) {
+        return SalaryAggregate.of(ids.length, (builder, row) -> {
+            if (ages[row] == IRREGULAR_AGE) {
+                builder.add(salaries[row], irregularAges.get(row));
+            } else {
+                builder.add(salaries[row], ages[row]);
+            }
+        }, bucketWidth, ageBounds);
+    }
+
+    @Override
+    public ColumnarEmployeeSnapshot withAdded(Employee employee) {
+        List<Employee> rows = new ArrayList<>(size() + 1);
+        rows.addAll(getEmployees());
+        rows.add(employee);
+        return new ColumnarEmployeeSnapshot(rows, refreshedAt);
+    }
+
+    @Override
+    public ColumnarEmployeeSnapshot withRemoved(int id) {
+        int removed = Arrays.binarySearch(ids, id);
+        if (removed < 0) {
+            return this;
+        }
+        List<Employee> rows = new ArrayList<>(getEmployees());
+        rows.remove(removed);
+        return new ColumnarEmployeeSnapshot(rows, refreshedAt);
+    }
+
+    /**
+     * Rebuilds the columns once for the whole batch instead of once per change.
+     */
+    @Override
+    public ColumnarEmployeeSnapshot withChanges(Collection<Employee> added, Collection<Integer> removedIds) {
+        Set<Integer> removed = new HashSet<>(removedIds);
+        List<Employee> rows = new ArrayList<>(size() + added.size());
+        for (int row = 0; row < ids.length; row++) {
+            if (!removed.contains(ids[row])) {
+                rows.add(materialize(row));
+            }
+        }
+        rows.addAll(added);
+        return new ColumnarEmployeeSnapshot(rows, refreshedAt);
+    }
+
+    /**
+     * This method is used to get this roster with a new refresh time, for a refresh that changed nothing.
+     * @param refreshedAt
+     * @return
+     */
+    ColumnarEmployeeSnapshot withRefreshedAt(Instant refreshedAt) {
+        return new ColumnarEmployeeSnapshot(this, refreshedAt);
+    }
+
+    /**
+     * This method is used to get the first row whose id is greater than the given id.
+     */
+    private int firstRowAfter(int after) {
+        if (after == NameQuery.FROM_START) {
+            return 0;
+        }
+        int row = Arrays.binarySearch(ids, after);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    private Employee materialize(int row) {
+        return new Employee(ids[row], name(row), salaries[row], age(row),
+                profileImageCodes[row] == NONE ? null : profileImages[profileImageCodes[row]]);
+    }
+
+    private String name(int row) {
+        int code = nameCodes[row];
+        return code == NONE ? null : new String(nameChars, nameOffsets[code], nameOffsets[code + 1] - nameOffsets[code]);
+    }
+
+    private String age(int row) {
+        return ages[row] == IRREGULAR_AGE ? irregularAges.get(row) : Byte.toString(ages[row]);
+    }
+
+    private byte packAge(int row, String age) {
+        if (age != null && age.length() <= 3) {
+            try {
+                int value = Integer.parseInt(age);
+                //only canonical values round-trip, "061" or "+61" keep their original text
+                if (value > IRREGULAR_AGE && value <= Byte.MAX_VALUE && Integer.toString(value).equals(age)) {
+                    return (byte) value;
+                }
+            } catch (NumberFormatException ignored) {
+                //kept as text below
+            }
+        }
+        if (age != null) {
+            irregularAges.put(row, age);
+        }
+        return IRREGULAR_AGE;
+    }
+
+    /**
+     * This method is used to get the name codes that contain every gram of the search string, all codes when the
+     * search string is shorter than a gram.
+     */
+    private int[] candidateNameCodes(String searchString) {
+        if (searchString.length() < NameIndex.GRAM) {
+            int[] all = new int[nameOffsets.length - 1];
+            Arrays.setAll(all, code -> code);
+            return all;
+        }
+        int[][] lists = new int[searchString.length() - NameIndex.GRAM + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = nameCodesByGram.get(NameIndex.gram(searchString.charAt(i), searchString.charAt(i + 1),
+                    searchString.charAt(i + 2)));
+            if (lists[i] == null) {
+                return new int[0];
+            }
+        }
+        Arrays.sort(lists, (left, right) -> Integer.compare(left.length, right.length));
+        int[] candidates = new int[lists[0].length];
+        int count = 0;
+        for (int code : lists[0]) {
+            boolean inAll = true;
+            for (int i = 1; i < lists.length && inAll; i++) {
+                inAll = Arrays.binarySearch(lists[i], code) >= 0;
+            }
+            if (inAll) {
+                candidates[count++] = code;
+            }
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * This method is used to map every case folded gram of the distinct names to the ascending codes containing it.
+     */
+    private Map<Long, int[]> indexNameGrams() {
+        Map<Long, int[]> building = new HashMap<>();
+        Map<Long, Integer> sizes = new HashMap<>();
+        for (int code = 0; code < nameOffsets.length - 1; code++) {
+            for (int i = nameOffsets[code]; i + NameIndex.GRAM <= nameOffsets[code + 1]; i++) {
+                long gram = NameIndex.gram(nameChars[i], nameChars[i + 1], nameChars[i + 2]);
+                int[] codes = building.get(gram);
+                int size = codes == null ? 0 : sizes.get(gram);
+                if (size > 0 && codes[size - 1] == code) {
+                    continue;
+                }
+                if (codes == null || size == codes.length) {
+                    codes = codes == null ? new int[4] : Arrays.copyOf(codes, size * 2);
+                    building.put(gram, codes);
+                }
+                codes[size] = code;
+                sizes.put(gram, size + 1);
+            }
+        }
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((gram, codes) -> postings.put(gram, Arrays.copyOf(codes, sizes.get(gram))));
+        return postings;
+    }
+
+    private boolean nameMatches(int code, NameQuery query) {
+        String searchString = query.getSearchString();
+        int start = nameOffsets[code];
+        int length = nameOffsets[code + 1] - start;
+        for (int i = 0; i + searchString.length() <= length; i++) {
+            if (regionMatches(start + i, searchString, query.isIgnoreCase())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean regionMatches(int offset, String searchString, boolean ignoreCase) {
+        for (int i = 0; i < searchString.length(); i++) {
+            char c = nameChars[offset + i];
+            char s = searchString.charAt(i);
+            if (c != s && !(ignoreCase && NameQuery.fold(c) == NameQuery.fold(s))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Sorts row numbers by salary descending and row ascending. Rows are in id order, so ties fall back to id
+     * like {@link SalaryIndex#BY_SALARY_DESC}. Each row is encoded into one long so no comparator or boxing is needed.
+     */
+    private static int[] sortBySalaryDesc(int[] salaries) {
+        long[] keys = new long[salaries.length];
+        for (int row = 0; row < salaries.length; row++) {
+            long descendingSalary = (long) Integer.MAX_VALUE - salaries[row];
+            //flipping the sign bit makes the signed sort order the unsigned one
+            keys[row] = ((descendingSalary << 32) | row) ^ Long.MIN_VALUE;
+        }
+        Arrays.sort(keys);
+        int[] rows = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            rows[i] = (int) keys[i];
+        }
+        return rows;
+    }
+
+    /**
+     * Read-only view of all rows in id order, creating each {@link Employee} on access.
+     */
+    private final class Rows extends AbstractList<Employee> implements RandomAccess {
+
+        @Override
+        public Employee get(int row) {
+            return materialize(row);
+        }
+
+        @Override
+        public int size() {
+            return ids.length;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable point-in-time copy of the employee roster fetched from upstream.
+ * A new instance is built on every refresh and swapped in as a whole, so readers never see a partial roster.
+ * Local creates and deletes derive a new snapshot instead of changing this one.
+ * See {@link SnapshotLayout} for the available in-memory layouts.
+ */
+public interface EmployeeSnapshot {
+
+    List<Employee> getEmployees();
+
+    /**
+     * This method is used to get a page of the roster in employee id order, starting after the given id.
+     * @param after id of the last employee of the previous page, {@link NameQuery#FROM_START} for the first page
+     * @param limit maximum number of employees to return, {@link NameQuery#UNLIMITED} for all
+     * @return
+     */
+    List<Employee> getEmployees(int after, int limit);
+
+    Instant getRefreshedAt();
+
+    int size();
+
+    Optional<Employee> findById(int id);
+
+    /**
+     * This method is used to get all employees whose name contains the input string, case-sensitive and unlimited.
+     * @param searchString
+     * @return
+     */
+    default List<Employee> searchByName(String searchString) {
+        return searchByName(NameQuery.of(searchString));
+    }
+
+    /**
+     * This method is used to get the employees matching the name query, in employee id order.
+     * @param query
+     * @return
+     */
+    List<Employee> searchByName(NameQuery query);
+
+    /**
+     * This method is used to get the highest salary, null for an empty roster.
+     * @return
+     */
+    Integer getHighestSalary();
+
+    /**
+     * This method is used to get the n highest earning employees, ordered by salary and then id.
+     * @param n
+     * @return
+     */
+    List<Employee> getTopEarners(int n);
+
+    /**
+     * This method is used to get the names of the n highest earning employees.
+     * @param n
+     * @return
+     */
+    List<String> getTopEarnerNames(int n);
+
+    /**
+     * This method is used to aggregate the salaries of the roster, see {@link SalaryAggregate}.
+     * @param bucketWidth
+     * @param ageBounds ascending
+     * @return
+     */
+    default SalaryAggregate getSalaryAggregate(int bucketWidth, int[] ageBounds) {
+        return SalaryAggregate.of(getEmployees(), bucketWidth, ageBounds);
+    }
+
+    /**
+     * This method is used to get a snapshot that also contains the given employee, replacing any with the same id.
+     * @param employee
+     * @return
+     */
+    EmployeeSnapshot withAdded(Employee employee);
+
+    /**
+     * This method is used to get a snapshot without the employee of the given id.
+     * @param id
+     * @return
+     */
+    EmployeeSnapshot withRemoved(int id);
+
+    /**
+     * This method is used to get a snapshot with a batch of local changes applied at once, removals first.
+     * @param added
+     * @param removedIds
+     * @return
+     */
+    default EmployeeSnapshot withChanges(Collection<Employee> added, Collection<Integer> removedIds) {
+        EmployeeSnapshot snapshot = this;
+        for (int id : removedIds) {
+            snapshot = snapshot.withRemoved(id);
+        }
+        for (Employee employee : added) {
+            snapshot = snapshot.withAdded(employee);
+        }
+        return snapshot;
+    }
+}
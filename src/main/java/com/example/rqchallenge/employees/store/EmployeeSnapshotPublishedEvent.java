@@ -0,0 +1,23 @@
+package com.example.rqchallenge.employees.store;
+
+import lombok.Value;
+
+/**
+ * This class is the application event sent when the current snapshot changes: a roster fetched from upstream
+ * replaced it, or local creates and deletes were written through to it with
+ * {@link EmployeeSnapshotStore#applyLocalChanges}. It carries how the roster changed, so listeners only update what
+ * changed, and is not sent when nothing did, nor for local changes made before any snapshot is loaded.
+ * The diff is from previous, null when there was none, to snapshot. Other snapshots may have been published since,
+ * so results derived from a snapshot should only apply the diff when they were derived from previous.
+ */
+@Value
+public class EmployeeSnapshotPublishedEvent {
+
+    EmployeeSnapshot previous;
+
+    EmployeeSnapshot snapshot;
+
+    RosterDiff diff;
+
+    boolean local;
+}
@@ -0,0 +1,238 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class holds the latest employee snapshot in memory.
+ * Readers only dereference the current snapshot, writers swap in a complete new one.
+ * With employee.snapshot.file.enabled every roster fetched from upstream is also written to a snapshot file, which is
+ * memory-mapped on startup so reads are served before the first upstream fetch, and which backs the fallbacks.
+ * The file is written in the background, one write at a time, and a write always takes the snapshot current by then,
+ * so a burst of changes costs one write. Local changes are written too; after a restart they are served from the file
+ * until the first refresh, which keeps them only where upstream reflects them, since the log of pending local changes
+ * is not persisted.
+ * A snapshot older than employee.snapshot.max-staleness-ms is no longer current, so readers load a fresh one, but it
+ * still backs the fallbacks. Publishing a roster sends an {@link EmployeeSnapshotPublishedEvent} with the
+ * {@link RosterDiff} from the previous snapshot.
+ * Creates and deletes upstream confirmed are written through to the current snapshot at once, and kept in a
+ * {@link LocalMutationLog} until upstream rosters reflect them, so a refresh does not undo them in the meantime.
+ */
+@Component
+public class EmployeeSnapshotStore {
+
+    public static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotStore.class);
+
+    private final AtomicReference<EmployeeSnapshot> current = new AtomicReference<>();
+
+    private final AtomicReference<EmployeeSnapshot> persisted = new AtomicReference<>();
+
+    private final LocalMutationLog localChanges = new LocalMutationLog();
+
+    private final AtomicBoolean persistRequested = new AtomicBoolean();
+
+    private final ExecutorService persister = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "employee-snapshot-persister");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${employee.snapshot.layout:objects}")
+    SnapshotLayout layout = SnapshotLayout.OBJECTS;
+
+    @Value("${employee.snapshot.file.enabled:false}")
+    boolean fileEnabled;
+
+    @Value("${employee.snapshot.file.path:data/employee-snapshot.bin}")
+    String filePath = "data/employee-snapshot.bin";
+
+    @Value("${employee.snapshot.max-staleness-ms:600000}")
+    long maxStalenessMs = 600000;
+
+    @Value("${employee.snapshot.local-changes.max-age-ms:300000}")
+    long localChangesMaxAgeMs = 300000;
+
+    //null when the store is created outside a Spring context
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    /**
+     * This method is used to serve the snapshot file left by the previous run until the first upstream fetch.
+     */
+    @PostConstruct
+    public void restore() {
+        if (!fileEnabled) {
+            return;
+        }
+        try {
+            MappedEmployeeSnapshot.map(Paths.get(filePath)).ifPresent(snapshot -> {
+                persisted.set(snapshot);
+                current.compareAndSet(null, snapshot);
+                logger.info("Restored employee snapshot of size {} refreshed at {} from {}",
+                        snapshot.size(), snapshot.getRefreshedAt(), filePath);
+            });
+        } catch (IOException ex) {
+            logger.warn("Could not restore employee snapshot from {}, starting empty. ERROR : {}", filePath, ex.toString());
+        }
+    }
+
+    /**
+     * This method is used to get the current snapshot, empty until the first successful load and once it is older
+     * than the maximum staleness.
+     * @return
+     */
+    public Optional<EmployeeSnapshot> current() {
+        EmployeeSnapshot snapshot = current.get();
+        return snapshot != null && !isStale(snapshot) ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    /**
+     * This method is used to get the last good roster for fallbacks: the current snapshot, or else the snapshot file.
+     * @return
+     */
+    public Optional<EmployeeSnapshot> lastGood() {
+        EmployeeSnapshot snapshot = current.get();
+        return Optional.ofNullable(snapshot != null ? snapshot : persisted.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        persister.shutdown();
+    }
+
+    /**
+     * This method is used to replace the current snapshot with the given roster and persist it to the snapshot file.
+     * The local changes upstream does not reflect yet are applied on top of the roster first. The result is diffed
+     * against the last good snapshot, and the layout applies only the diff where it can. When local changes replace
+     * the current snapshot meanwhile, the roster is reconciled and diffed again, so they are not lost.
+     * @param employees
+     * @return
+     */
+    public EmployeeSnapshot publish(List<Employee> employees) {
+        Instant refreshedAt = Instant.now();
+        EmployeeSnapshot replaced;
+        EmployeeSnapshot previous;
+        EmployeeSnapshot snapshot;
+        RosterDiff diff;
+        do {
+            replaced = current.get();
+            previous = replaced != null ? replaced : persisted.get();
+            List<Employee> roster = localChanges.reconcile(employees, refreshedAt.minusMillis(localChangesMaxAgeMs));
+            diff = RosterDiff.between(previous, roster);
+            snapshot = layout.refresh(previous, roster, diff, refreshedAt);
+        } while (!current.compareAndSet(replaced, snapshot));
+        logger.debug("Published {} employee snapshot of size {}, {}, {} local changes pending", layout,
+                snapshot.size(), diff, localChanges.size());
+        if (!diff.isEmpty()) {
+            requestPersist();
+        }
+        sendPublished(previous, snapshot, diff, false);
+        return snapshot;
+    }
+
+    /**
+     * This method is used to write creates and deletes upstream confirmed through to the current snapshot, if one is
+     * loaded, and keep them until upstream rosters reflect them. They are recorded before the snapshot is replaced,
+     * so a concurrent {@link #publish(List)} either sees them in the log or has to retry. No event is sent when no
+     * snapshot is loaded.
+     * @param created
+     * @param deletedIds
+     * @return how the current snapshot changed, initial when none is loaded
+     */
+    public RosterDiff applyLocalChanges(Collection<Employee> created, Collection<Integer> deletedIds) {
+        localChanges.record(created, deletedIds, Instant.now());
+        EmployeeSnapshot previous;
+        EmployeeSnapshot updated;
+        do {
+            previous = current.get();
+            updated = previous == null ? null : previous.withChanges(created, deletedIds);
+        } while (!current.compareAndSet(previous, updated));
+        RosterDiff diff = RosterDiff.of(previous, created, deletedIds);
+        if (updated != null) {
+            if (!diff.isEmpty()) {
+                requestPersist();
+            }
+            sendPublished(previous, updated, diff, true);
+        }
+        return diff;
+    }
+
+    /**
+     * This method is used to drop the current snapshot and the pending local changes, so the next read loads the
+     * roster again as upstream has it.
+     */
+    public void clear() {
+        current.set(null);
+        localChanges.clear();
+    }
+
+    private void sendPublished(EmployeeSnapshot previous, EmployeeSnapshot snapshot, RosterDiff diff, boolean local) {
+        if (eventPublisher != null && !diff.isEmpty()) {
+            eventPublisher.publishEvent(new EmployeeSnapshotPublishedEvent(previous, snapshot, diff, local));
+        }
+    }
+
+    private boolean isStale(EmployeeSnapshot snapshot) {
+        return snapshot.getRefreshedAt().plusMillis(maxStalenessMs).isBefore(Instant.now());
+    }
+
+    /**
+     * This method is used to wait until the snapshot file reflects every change published so far.
+     * @throws InterruptedException
+     */
+    void awaitPersisted() throws InterruptedException {
+        try {
+            //the persister runs one task at a time, so this runs after every write requested before
+            persister.submit(() -> { }).get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * This method is used to have the current snapshot written to the snapshot file in the background. A request made
+     * while a write is queued is served by that write.
+     */
+    private void requestPersist() {
+        if (fileEnabled && persistRequested.compareAndSet(false, true)) {
+            persister.execute(this::persist);
+        }
+    }
+
+    /**
+     * This method is used to write the current snapshot to the snapshot file. The written snapshot backs the
+     * fallbacks from then on, so the file is only mapped once, on startup. A failed write keeps the previous file.
+     */
+    private void persist() {
+        persistRequested.set(false);
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null || snapshot == persisted.get()) {
+            return;
+        }
+        try {
+            MappedEmployeeSnapshot.write(snapshot, Paths.get(filePath));
+            persisted.set(snapshot);
+        } catch (IOException ex) {
+            logger.warn("Error while writing employee snapshot to {}. ERROR : {}", filePath, ex.toString());
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot that keeps the upstream {@link Employee} objects, in roster order, with a name and a salary index over them.
+ * Local creates and deletes, and refreshes that changed only part of the roster, derive a new snapshot whose indexes
+ * are updated in place of a rebuild.
+ */
+public final class HeapEmployeeSnapshot implements EmployeeSnapshot {
+
+    private final List<Employee> employees;
+    private final NameIndex nameIndex;
+    private final SalaryIndex salaryIndex;
+    private final Instant refreshedAt;
+
+    public HeapEmployeeSnapshot(List<Employee> employees, Instant refreshedAt) {
+        this.employees = Collections.unmodifiableList(new ArrayList<>(employees));
+        this.nameIndex = NameIndex.of(employees);
+        this.salaryIndex = SalaryIndex.of(employees);
+        this.refreshedAt = refreshedAt;
+    }
+
+    private HeapEmployeeSnapshot(List<Employee> employees, NameIndex nameIndex,
+                                 SalaryIndex salaryIndex, Instant refreshedAt) {
+        this.employees = employees;
+        this.nameIndex = nameIndex;
+        this.salaryIndex = salaryIndex;
+        this.refreshedAt = refreshedAt;
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    @Override
+    public List<Employee> getEmployees(int after, int limit) {
+        return nameIndex.page(after, limit);
+    }
+
+    @Override
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    @Override
+    public int size() {
+        return employees.size();
+    }
+
+    @Override
+    public Optional<Employee> findById(int id) {
+        return Optional.ofNullable(nameIndex.findById(id));
+    }
+
+    @Override
+    public List<Employee> searchByName(NameQuery query) {
+        return nameIndex.search(query);
+    }
+
+    @Override
+    public Integer getHighestSalary() {
+        return salaryIndex.getHighestSalary();
+    }
+
+    @Override
+    public List<Employee> getTopEarners(int n) {
+        return salaryIndex.top(n);
+    }
+
+    @Override
+    public List<String> getTopEarnerNames(int n) {
+        return salaryIndex.top(n).stream().map(Employee::getName).collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public HeapEmployeeSnapshot withAdded(Employee employee) {
+        HeapEmployeeSnapshot base = withRemoved(employee.getId());
+        List<Employee> updatedEmployees = new ArrayList<>(base.employees.size() + 1);
+        updatedEmployees.addAll(base.employees);
+        updatedEmployees.add(employee);
+        return new HeapEmployeeSnapshot(Collections.unmodifiableList(updatedEmployees), base.nameIndex.withAdded(employee),
+                base.salaryIndex.withAdded(employee), refreshedAt);
+    }
+
+    @Override
+    public HeapEmployeeSnapshot withRemoved(int id) {
+        Employee removed = nameIndex.findById(id);
+        if (removed == null) {
+            return this;
+        }
+        List<Employee> updatedEmployees = new ArrayList<>(employees);
+        updatedEmployees.remove(removed);
+        return new HeapEmployeeSnapshot(Collections.unmodifiableList(updatedEmployees), nameIndex.withRemoved(id),
+                salaryIndex.withRemoved(removed), refreshedAt);
+    }
+
+    /**
+     * Updates the indexes once for the whole batch instead of once per change.
+     */
+    @Override
+    public HeapEmployeeSnapshot withChanges(Collection<Employee> added, Collection<Integer> removedIds) {
+        Map<Integer, Employee> upserts = new LinkedHashMap<>();
+        added.forEach(employee -> upserts.put(employee.getId(), employee));
+        Set<Integer> dropped = new HashSet<>(removedIds);
+        dropped.addAll(upserts.keySet());
+        List<Employee> outdated = dropped.stream().map(nameIndex::findById).filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (outdated.isEmpty() && upserts.isEmpty()) {
+            return this;
+        }
+        List<Employee> updatedEmployees = new ArrayList<>(employees.size() + upserts.size());
+        for (Employee employee : employees) {
+            if (!dropped.contains(employee.getId())) {
+                updatedEmployees.add(employee);
+            }
+        }
+        updatedEmployees.addAll(upserts.values());
+        return new HeapEmployeeSnapshot(Collections.unmodifiableList(updatedEmployees),
+                nameIndex.withChanges(upserts.values(), removedIds), salaryIndex.withChanges(outdated, upserts.values()),
+                refreshedAt);
+    }
+
+    /**
+     * This method is used to get the snapshot of a refreshed roster by applying how it differs from this one to the
+     * indexes, so only the changed employees are indexed again.
+     * @param roster the refreshed roster, kept in its order
+     * @param diff how the roster differs from this snapshot
+     * @param refreshedAt
+     * @return
+     */
+    HeapEmployeeSnapshot withRefresh(List<Employee> roster, RosterDiff diff, Instant refreshedAt) {
+        List<Employee> upserts = diff.getUpserts();
+        return new HeapEmployeeSnapshot(Collections.unmodifiableList(new ArrayList<>(roster)),
+                nameIndex.withChanges(upserts, diff.getRemovedIds()),
+                salaryIndex.withChanges(diff.getOutdated(), upserts), refreshedAt);
+    }
+}
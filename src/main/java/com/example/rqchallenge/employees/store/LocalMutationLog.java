@@ -0,0 +1,77 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class logs the creates and deletes that upstream confirmed but may not reflect in its roster yet, since
+ * upstream is only eventually consistent. Every roster fetched from upstream is reconciled with the log before it is
+ * published: a change the roster already reflects leaves the log, one it does not reflect yet is applied on top of it.
+ * A change that upstream still does not reflect after employee.snapshot.local-changes.max-age-ms is dropped, and
+ * upstream wins.
+ * The latest change of an id replaces any earlier one.
+ */
+public final class LocalMutationLog {
+
+    private final Map<Integer, Mutation> pending = new ConcurrentHashMap<>();
+
+    public void record(Collection<Employee> created, Collection<Integer> deletedIds, Instant at) {
+        deletedIds.forEach(id -> pending.put(id, new Mutation(null, at)));
+        created.forEach(employee -> pending.put(employee.getId(), new Mutation(employee, at)));
+    }
+
+    /**
+     * This method is used to apply the pending changes on top of a roster fetched from upstream, and forget those
+     * the roster already reflects or that were recorded before the given time. Created employees are appended to the
+     * roster.
+     * @param roster
+     * @param expiredBefore
+     * @return the roster with the pending changes applied
+     */
+    public List<Employee> reconcile(List<Employee> roster, Instant expiredBefore) {
+        if (pending.isEmpty()) {
+            return roster;
+        }
+        Map<Integer, Employee> reconciled = new LinkedHashMap<>();
+        roster.forEach(employee -> reconciled.put(employee.getId(), employee));
+        for (Map.Entry<Integer, Mutation> entry : pending.entrySet()) {
+            Mutation mutation = entry.getValue();
+            boolean created = mutation.created != null;
+            if (mutation.at.isBefore(expiredBefore) || created == reconciled.containsKey(entry.getKey())) {
+                //remove only this mutation, not a later one recorded meanwhile
+                pending.remove(entry.getKey(), mutation);
+            } else if (created) {
+                reconciled.put(entry.getKey(), mutation.created);
+            } else {
+                reconciled.remove(entry.getKey());
+            }
+        }
+        return new ArrayList<>(reconciled.values());
+    }
+
+    public int size() {
+        return pending.size();
+    }
+
+    public void clear() {
+        pending.clear();
+    }
+
+    private static final class Mutation {
+
+        private final Employee created;
+        private final Instant at;
+
+        private Mutation(Employee created, Instant at) {
+            this.created = created;
+            this.at = at;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Snapshot that reads the roster straight from a memory-mapped snapshot file, so a restarted service can answer
+ * from the last good roster without parsing it first. The file is laid out as
+ * <pre>
+ *     header:  magic, version, refreshedAt (epoch millis), row count
+ *     int[n]   ids, ascending
+ *     int[n]   salaries, by row
+ *     int[n]   rows ordered by salary descending and then id
+ *     int[n+1] record offsets, by row
+ *     records: name, age and profile image of every row, each as a length (-1 for null) and UTF-8 bytes
+ * </pre>
+ * Lookups by id and the salary aggregates only touch the pages they need. Name search scans the records, so it is
+ * linear in the roster size. Local creates and deletes derive a {@link HeapEmployeeSnapshot}.
+ */
+public final class MappedEmployeeSnapshot implements EmployeeSnapshot {
+
+    private static final int MAGIC = 0x524F5354;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+    private static final int NULL_LENGTH = -1;
+
+    private final ByteBuffer buffer;
+    private final Instant refreshedAt;
+    private final int size;
+    private final int idsAt;
+    private final int salariesAt;
+    private final int salaryOrderAt;
+    private final int recordOffsetsAt;
+    private final int recordsAt;
+
+    private MappedEmployeeSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not an employee snapshot file of version " + VERSION);
+        }
+        this.buffer = buffer;
+        refreshedAt = Instant.ofEpochMilli(buffer.getLong(8));
+        size = buffer.getInt(16);
+        if (size < 0 || HEADER_BYTES + 16L * size + 4 > buffer.capacity()) {
+            throw new IOException("Truncated employee snapshot file");
+        }
+        idsAt = HEADER_BYTES;
+        salariesAt = idsAt + 4 * size;
+        salaryOrderAt = salariesAt + 4 * size;
+        recordOffsetsAt = salaryOrderAt + 4 * size;
+        recordsAt = recordOffsetsAt + 4 * (size + 1);
+        if ((long) recordsAt + buffer.getInt(recordOffsetsAt + 4 * size) != buffer.capacity()) {
+            throw new IOException("Truncated employee snapshot file");
+        }
+    }
+
+    /**
+     * This method is used to map a snapshot file written by {@link #write(EmployeeSnapshot, Path)}.
+     * @param path
+     * @return empty when there is no file yet
+     * @throws IOException when the file cannot be read or is not a complete snapshot file
+     */
+    public static Optional<MappedEmployeeSnapshot> map(Path path) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //the mapping stays valid after the channel is closed, and after the file is replaced by the next write
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(new MappedEmployeeSnapshot(buffer));
+        }
+    }
+
+    /**
+     * This method is used to write the snapshot to the given file. The file is written next to the target and then
+     * moved over it, so readers and a crash mid-write only ever see a complete file.
+     * @param snapshot
+     * @param path
+     * @throws IOException
+     */
+    public static void write(EmployeeSnapshot snapshot, Path path) throws IOException {
+        List<Employee> rows = new ArrayList<>(snapshot.getEmployees());
+        rows.sort((left, right) -> Integer.compare(left.getId(), right.getId()));
+        int[] ids = rows.stream().mapToInt(Employee::getId).toArray();
+
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        DataOutputStream recordOut = new DataOutputStream(records);
+        int[] recordOffsets = new int[rows.size() + 1];
+        for (int row = 0; row < rows.size(); row++) {
+            recordOffsets[row] = recordOut.size();
+            writeString(recordOut, rows.get(row).getName());
+            writeString(recordOut, rows.get(row).getAge());
+            writeString(recordOut, rows.get(row).getProfileImage());
+        }
+        recordOffsets[rows.size()] = recordOut.size();
+        if ((long) HEADER_BYTES + 16L * rows.size() + 4 + records.size() > Integer.MAX_VALUE) {
+            throw new IOException("Employee snapshot of " + rows.size() + " rows is too large to map");
+        }
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshot.getRefreshedAt().toEpochMilli());
+                out.writeInt(rows.size());
+                for (int id : ids) {
+                    out.writeInt(id);
+                }
+                for (Employee employee : rows) {
+                    out.writeInt(employee.getSalary());
+                }
+                for (Employee employee : snapshot.getTopEarners(rows.size())) {
+                    out.writeInt(Arrays.binarySearch(ids, employee.getId()));
+                }
+                for (int offset : recordOffsets) {
+                    out.writeInt(offset);
+                }
+                records.writeTo(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public List<Employee> getEmployees() {
+        return new Rows();
+    }
+
+    @Override
+    public List<Employee> getEmployees(int after, int limit) {
+        int from = firstRowAfter(after);
+        int to = limit > 0 ? (int) Math.min((long) from + limit, size) : size;
+        return new Rows().subList(from, to);
+    }
+
+    @Override
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Optional<Employee> findById(int id) {
+        int row = rowOf(id);
+        return row >= 0 ? Optional.of(materialize(row)) : Optional.empty();
+    }
+
+    @Override
+    public List<Employee> searchByName(NameQuery query) {
+        //names are matched on their UTF-8 bytes in place; a case-insensitive match only decodes names that are not
+        //plain ASCII, since those may fold onto ASCII characters
+        byte[] searchBytes = query.getSearchString().getBytes(StandardCharsets.UTF_8);
+        boolean asciiFold = query.isIgnoreCase() && searchBytes.length == query.getSearchString().length();
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        List<Employee> matches = new ArrayList<>();
+        for (int row = firstRowAfter(query.getAfter()); row < size && matches.size() < limit; row++) {
+            int nameAt = recordAt(row);
+            int length = buffer.getInt(nameAt);
+            if (length == NULL_LENGTH) {
+                continue;
+            }
+            boolean matched;
+            if (!query.isIgnoreCase()) {
+                matched = containsBytes(nameAt + 4, length, searchBytes, false);
+            } else if (asciiFold && isAscii(nameAt + 4, length)) {
+                matched = containsBytes(nameAt + 4, length, searchBytes, true);
+            } else {
+                matched = query.matches(readString(nameAt));
+            }
+            if (matched) {
+                matches.add(materialize(row));
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    @Override
+    public Integer getHighestSalary() {
+        return size == 0 ? null : salary(salaryOrderRow(0));
+    }
+
+    @Override
+    public List<Employee> getTopEarners(int n) {
+        int count = Math.min(Math.max(n, 0), size);
+        List<Employee> topEarners = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            topEarners.add(materialize(salaryOrderRow(i)));
+        }
+        return Collections.unmodifiableList(topEarners);
+    }
+
+    @Override
+    public List<String> getTopEarnerNames(int n) {
+        int count = Math.min(Math.max(n, 0), size);
+        List<String> names = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            names.add(readString(recordAt(salaryOrderRow(i))));
+        }
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Reads the salaries and the ages of the records, without creating the employees.
+     */
+    @Override
+    public SalaryAggregate getSalaryAggregate(int bucketWidth, int[] ageBounds) {
+        return SalaryAggregate.of(size, (builder, row) -> builder.add(salary(row), readString(skipString(recordAt(row)))),
+                bucketWidth, ageBounds);
+    }
+
+    @Override
+    public HeapEmployeeSnapshot withAdded(Employee employee) {
+        return new HeapEmployeeSnapshot(getEmployees(), refreshedAt).withAdded(employee);
+    }
+
+    @Override
+    public HeapEmployeeSnapshot withRemoved(int id) {
+        return new HeapEmployeeSnapshot(getEmployees(), refreshedAt).withRemoved(id);
+    }
+
+    @Override
+    public HeapEmployeeSnapshot withChanges(Collection<Employee> added, Collection<Integer> removedIds) {
+        Set<Integer> removed = new HashSet<>(removedIds);
+        Map<Integer, Employee> rows = new LinkedHashMap<>();
+        for (Employee employee : getEmployees()) {
+            if (!removed.contains(employee.getId())) {
+                rows.put(employee.getId(), employee);
+            }
+        }
+        added.forEach(employee -> rows.put(employee.getId(), employee));
+        return new HeapEmployeeSnapshot(new ArrayList<>(rows.values()), refreshedAt);
+    }
+
+    /**
+     * This method is used to binary search the id column, returning -(insertion row + 1) when the id is absent.
+     */
+    private int rowOf(int id) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int row = (low + high) >>> 1;
+            int rowId = buffer.getInt(idsAt + 4 * row);
+            if (rowId < id) {
+                low = row + 1;
+            } else if (rowId > id) {
+                high = row - 1;
+            } else {
+                return row;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private int firstRowAfter(int after) {
+        if (after == NameQuery.FROM_START) {
+            return 0;
+        }
+        int row = rowOf(after);
+        return row >= 0 ? row + 1 : -row - 1;
+    }
+
+    private Employee materialize(int row) {
+        int nameAt = recordAt(row);
+        int ageAt = skipString(nameAt);
+        int profileImageAt = skipString(ageAt);
+        return new Employee(buffer.getInt(idsAt + 4 * row), readString(nameAt), salary(row), readString(ageAt),
+                readString(profileImageAt));
+    }
+
+    private int salary(int row) {
+        return buffer.getInt(salariesAt + 4 * row);
+    }
+
+    private int salaryOrderRow(int rank) {
+        return buffer.getInt(salaryOrderAt + 4 * rank);
+    }
+
+    private int recordAt(int row) {
+        return recordsAt + buffer.getInt(recordOffsetsAt + 4 * row);
+    }
+
+    private int skipString(int at) {
+        int length = buffer.getInt(at);
+        return at + 4 + (length == NULL_LENGTH ? 0 : length);
+    }
+
+    private String readString(int at) {
+        int length = buffer.getInt(at);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        //a duplicate keeps the position of the shared buffer untouched for concurrent readers
+        buffer.duplicate().position(at + 4).get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean containsBytes(int at, int length, byte[] searchBytes, boolean asciiFold) {
+        for (int i = 0; i + searchBytes.length <= length; i++) {
+            int j = 0;
+            while (j < searchBytes.length && bytesMatch(buffer.get(at + i + j), searchBytes[j], asciiFold)) {
+                j++;
+            }
+            if (j == searchBytes.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isAscii(int at, int length) {
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(at + i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean bytesMatch(byte name, byte search, boolean asciiFold) {
+        if (name == search) {
+            return true;
+        }
+        int folded = name | 0x20;
+        return asciiFold && folded >= 'a' && folded <= 'z' && folded == (search | 0x20);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Read-only view of all rows in id order, creating each {@link Employee} on access.
+     */
+    private final class Rows extends AbstractList<Employee> implements RandomAccess {
+
+        @Override
+        public Employee get(int row) {
+            return materialize(Objects.checkIndex(row, size));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
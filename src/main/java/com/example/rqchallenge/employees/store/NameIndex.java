@@ -0,0 +1,288 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongConsumer;
+
+/**
+ * Immutable trigram index over employee names for substring search.
+ * Every name is split into overlapping three character grams, case folded, and each gram maps to the employees
+ * whose name contains it, sorted by id. A query only walks the posting list of its rarest gram and checks the others
+ * by binary search, so it does not touch employees that cannot match. Queries shorter than a gram fall back to a scan.
+ * Matches are returned in employee id order.
+ */
+public final class NameIndex {
+
+    static final int GRAM = 3;
+
+    private static final Comparator<Employee> BY_ID = Comparator.comparingInt(Employee::getId);
+
+    private static final Employee[] NONE = new Employee[0];
+
+    private final Employee[] byId;
+    private final Map<Long, Employee[]> postings;
+
+    private NameIndex(Employee[] byId, Map<Long, Employee[]> postings) {
+        this.byId = byId;
+        this.postings = postings;
+    }
+
+    public static NameIndex of(Collection<Employee> employees) {
+        //a later employee with the same id replaces the earlier one, as in withAdded
+        Map<Integer, Employee> unique = new HashMap<>();
+        employees.forEach(employee -> unique.put(employee.getId(), employee));
+        Employee[] byId = unique.values().toArray(NONE);
+        Arrays.sort(byId, BY_ID);
+        //employees are visited in id order, so every posting list is built already sorted
+        Map<Long, PostingList> building = new HashMap<>();
+        for (Employee employee : byId) {
+            String name = employee.getName();
+            if (name == null) {
+                continue;
+            }
+            for (int i = 0; i + GRAM <= name.length(); i++) {
+                building.computeIfAbsent(gram(name, i), key -> new PostingList()).addIfAbsent(employee);
+            }
+        }
+        Map<Long, Employee[]> postings = new HashMap<>(building.size() * 4 / 3 + 1);
+        building.forEach((gram, list) -> postings.put(gram, list.toArray()));
+        return new NameIndex(byId, postings);
+    }
+
+    public int size() {
+        return byId.length;
+    }
+
+    public Employee findById(int id) {
+        int slot = slotOf(byId, id);
+        return slot >= 0 ? byId[slot] : null;
+    }
+
+    /**
+     * This method is used to get a page of the employees in id order, starting after the given id.
+     * @param after
+     * @param limit
+     * @return
+     */
+    public List<Employee> page(int after, int limit) {
+        int from = firstSlotAfter(byId, after);
+        int to = limit > 0 ? (int) Math.min((long) from + limit, byId.length) : byId.length;
+        return Collections.unmodifiableList(Arrays.asList(byId).subList(from, to));
+    }
+
+    /**
+     * This method is used to get the employees whose name contains the query string.
+     * @param query
+     * @return
+     */
+    public List<Employee> search(NameQuery query) {
+        String searchString = query.getSearchString();
+        int limit = query.getLimit() > 0 ? query.getLimit() : Integer.MAX_VALUE;
+        if (searchString.length() < GRAM) {
+            return collect(byId, null, query, limit);
+        }
+        Employee[][] lists = new Employee[searchString.length() - GRAM + 1][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(gram(searchString, i));
+            if (lists[i] == null) {
+                return Collections.emptyList();
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        return collect(lists[0], lists, query, limit);
+    }
+
+    /**
+     * This method is used to get an index that also contains the given employee, replacing any with the same id.
+     * @param employee
+     * @return
+     */
+    public NameIndex withAdded(Employee employee) {
+        return withChanges(List.of(employee), List.of());
+    }
+
+    /**
+     * This method is used to get an index without the employee of the given id.
+     * @param id
+     * @return
+     */
+    public NameIndex withRemoved(int id) {
+        return withChanges(List.of(), List.of(id));
+    }
+
+    /**
+     * This method is used to get an index with a batch of changes applied at once: the employees of the removed ids
+     * are dropped, and the added employees replace any with the same id. Only the posting lists of the grams in the
+     * affected names are rebuilt, each by merging the sorted changes into it.
+     * @param added
+     * @param removedIds
+     * @return
+     */
+    public NameIndex withChanges(Collection<Employee> added, Collection<Integer> removedIds) {
+        Map<Integer, Employee> upserts = new HashMap<>();
+        added.forEach(employee -> upserts.put(employee.getId(), employee));
+        Set<Integer> dropped = new HashSet<>(removedIds);
+        dropped.addAll(upserts.keySet());
+        Map<Long, List<Employee>> insertedByGram = new HashMap<>();
+        boolean anyDropped = false;
+        for (int id : dropped) {
+            Employee existing = findById(id);
+            if (existing != null) {
+                anyDropped = true;
+                forEachGram(existing.getName(), gram -> insertedByGram.computeIfAbsent(gram, key -> new ArrayList<>()));
+            }
+        }
+        if (!anyDropped && upserts.isEmpty()) {
+            return this;
+        }
+        Employee[] inserted = upserts.values().toArray(NONE);
+        Arrays.sort(inserted, BY_ID);
+        for (Employee employee : inserted) {
+            forEachGram(employee.getName(), gram -> {
+                List<Employee> list = insertedByGram.computeIfAbsent(gram, key -> new ArrayList<>());
+                //a name can hold the same gram more than once
+                if (list.isEmpty() || list.get(list.size() - 1) != employee) {
+                    list.add(employee);
+                }
+            });
+        }
+        Map<Long, Employee[]> updatedPostings = new HashMap<>(postings);
+        insertedByGram.forEach((gram, list) -> {
+            Employee[] merged = merge(postings.getOrDefault(gram, NONE), dropped, list.toArray(NONE));
+            if (merged.length == 0) {
+                updatedPostings.remove(gram);
+            } else {
+                updatedPostings.put(gram, merged);
+            }
+        });
+        return new NameIndex(merge(byId, dropped, inserted), updatedPostings);
+    }
+
+    private static List<Employee> collect(Employee[] candidates, Employee[][] lists, NameQuery query, int limit) {
+        String searchString = query.getSearchString();
+        //a case folded gram hit is already a case-insensitive match for a query of exactly one gram
+        boolean verify = !query.isIgnoreCase() || searchString.length() != GRAM;
+        List<Employee> matches = new ArrayList<>();
+        for (int i = firstSlotAfter(candidates, query.getAfter()); i < candidates.length; i++) {
+            Employee candidate = candidates[i];
+            if (lists != null && !inAll(candidate.getId(), lists)) {
+                continue;
+            }
+            if (candidate.getName() == null || (verify && !query.matches(candidate))) {
+                continue;
+            }
+            matches.add(candidate);
+            if (matches.size() >= limit) {
+                break;
+            }
+        }
+        return Collections.unmodifiableList(matches);
+    }
+
+    private static boolean inAll(int id, Employee[][] lists) {
+        for (int i = 1; i < lists.length; i++) {
+            if (slotOf(lists[i], id) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long gram(String value, int offset) {
+        return gram(value.charAt(offset), value.charAt(offset + 1), value.charAt(offset + 2));
+    }
+
+    /**
+     * Packs three characters into a gram key. Grams are case folded like {@link NameQuery#matches(Employee)},
+     * so a gram built from the name is found for any case-insensitive match.
+     */
+    static long gram(char first, char second, char third) {
+        return ((long) NameQuery.fold(first) << 32) | ((long) NameQuery.fold(second) << 16) | NameQuery.fold(third);
+    }
+
+    private static int slotOf(Employee[] sorted, int id) {
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = sorted[mid].getId();
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static int firstSlotAfter(Employee[] sorted, int after) {
+        if (after == NameQuery.FROM_START) {
+            return 0;
+        }
+        int slot = slotOf(sorted, after);
+        return slot >= 0 ? slot + 1 : -slot - 1;
+    }
+
+    private static void forEachGram(String name, LongConsumer consumer) {
+        if (name == null) {
+            return;
+        }
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            consumer.accept(gram(name, i));
+        }
+    }
+
+    /**
+     * Merges two arrays sorted by id, leaving out the employees of the dropped ids from the first one.
+     */
+    private static Employee[] merge(Employee[] sorted, Set<Integer> dropped, Employee[] inserted) {
+        Employee[] merged = new Employee[sorted.length + inserted.length];
+        int size = 0;
+        int next = 0;
+        for (Employee employee : sorted) {
+            if (dropped.contains(employee.getId())) {
+                continue;
+            }
+            while (next < inserted.length && inserted[next].getId() < employee.getId()) {
+                merged[size++] = inserted[next++];
+            }
+            merged[size++] = employee;
+        }
+        while (next < inserted.length) {
+            merged[size++] = inserted[next++];
+        }
+        return size == 0 ? NONE : size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+
+    private static final class PostingList {
+
+        private Employee[] values = new Employee[4];
+        private int size;
+
+        void addIfAbsent(Employee employee) {
+            if (size > 0 && values[size - 1] == employee) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = employee;
+        }
+
+        Employee[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import lombok.Value;
+
+/**
+ * This class is used to hold a substring name search. It is also the cache key of the employeeByName cache.
+ * Matches come in employee id order, so a page of them continues after the id of the last match of the previous page.
+ */
+@Value(staticConstructor = "of")
+public class NameQuery {
+
+    /**
+     * Limit value that returns every match.
+     */
+    public static final int UNLIMITED = 0;
+
+    /**
+     * Cursor value that starts from the first employee.
+     */
+    public static final int FROM_START = Integer.MIN_VALUE;
+
+    String searchString;
+    boolean ignoreCase;
+    int limit;
+    int after;
+
+    public static NameQuery of(String searchString) {
+        return of(searchString, false, UNLIMITED);
+    }
+
+    public static NameQuery of(String searchString, boolean ignoreCase, int limit) {
+        return of(searchString, ignoreCase, limit, FROM_START);
+    }
+
+    /**
+     * This method is used to check whether the employee name contains the search string.
+     * @param employee
+     * @return
+     */
+    public boolean matches(Employee employee) {
+        return matches(employee.getName());
+    }
+
+    /**
+     * This method is used to check whether the name contains the search string.
+     * @param name
+     * @return
+     */
+    public boolean matches(String name) {
+        if (name == null) {
+            return false;
+        }
+        if (!ignoreCase) {
+            return name.contains(searchString);
+        }
+        if (searchString.isEmpty()) {
+            return true;
+        }
+        char first = fold(searchString.charAt(0));
+        for (int i = 0; i + searchString.length() <= name.length(); i++) {
+            if (fold(name.charAt(i)) == first && name.regionMatches(true, i + 1, searchString, 1, searchString.length() - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Folds a character the same way {@link String#regionMatches(boolean, int, String, int, int)} compares it.
+     */
+    static char fold(char c) {
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * This class holds how a roster fetched from upstream, or local creates and deletes, change the previous snapshot,
+ * compared by employee id: the employees that were added, removed (as they were) and changed (as they are now, and
+ * as they were). A diff without a previous snapshot to compare with is initial, and counts every employee as added.
+ */
+@Value
+public class RosterDiff {
+
+    private static final RosterDiff NONE = new RosterDiff(List.of(), List.of(), List.of(), List.of(), false);
+
+    List<Employee> added;
+    List<Employee> removed;
+    List<Employee> changed;
+    List<Employee> changedFrom;
+    boolean initial;
+
+    /**
+     * This method is used to diff the roster against the previous snapshot. A later employee with the same id
+     * replaces an earlier one, as in the snapshot layouts.
+     * @param previous the previous snapshot, null when there is none
+     * @param roster
+     * @return
+     */
+    public static RosterDiff between(EmployeeSnapshot previous, List<Employee> roster) {
+        Map<Integer, Employee> latest = new LinkedHashMap<>();
+        roster.forEach(employee -> latest.put(employee.getId(), employee));
+        if (previous == null) {
+            return new RosterDiff(List.copyOf(latest.values()), List.of(), List.of(), List.of(), true);
+        }
+        List<Employee> added = new ArrayList<>();
+        List<Employee> changed = new ArrayList<>();
+        List<Employee> changedFrom = new ArrayList<>();
+        for (Employee employee : latest.values()) {
+            Optional<Employee> before = previous.findById(employee.getId());
+            if (before.isEmpty()) {
+                added.add(employee);
+            } else if (!before.get().equals(employee)) {
+                changed.add(employee);
+                changedFrom.add(before.get());
+            }
+        }
+        List<Employee> removed = new ArrayList<>();
+        Set<Integer> removedIds = new HashSet<>();
+        for (Employee employee : previous.getEmployees()) {
+            if (!latest.containsKey(employee.getId()) && removedIds.add(employee.getId())) {
+                removed.add(employee);
+            }
+        }
+        if (added.isEmpty() && removed.isEmpty() && changed.isEmpty()) {
+            return NONE;
+        }
+        return new RosterDiff(Collections.unmodifiableList(added), Collections.unmodifiableList(removed),
+                Collections.unmodifiableList(changed), Collections.unmodifiableList(changedFrom), false);
+    }
+
+    /**
+     * This method is used to describe local creates and deletes applied to the previous snapshot. Without a previous
+     * snapshot the diff is initial, holding the created employees as added.
+     * @param previous the previous snapshot, null when there is none
+     * @param created
+     * @param deletedIds
+     * @return
+     */
+    public static RosterDiff of(EmployeeSnapshot previous, Collection<Employee> created, Collection<Integer> deletedIds) {
+        if (previous == null) {
+            return new RosterDiff(List.copyOf(created), List.of(), List.of(), List.of(), true);
+        }
+        List<Employee> added = new ArrayList<>();
+        List<Employee> removed = new ArrayList<>();
+        List<Employee> changed = new ArrayList<>();
+        List<Employee> changedFrom = new ArrayList<>();
+        Set<Integer> createdIds = new HashSet<>();
+        for (Employee employee : created) {
+            createdIds.add(employee.getId());
+            Optional<Employee> before = previous.findById(employee.getId());
+            if (before.isEmpty()) {
+                added.add(employee);
+            } else if (!before.get().equals(employee)) {
+                changed.add(employee);
+                changedFrom.add(before.get());
+            }
+        }
+        for (int id : new HashSet<>(deletedIds)) {
+            if (!createdIds.contains(id)) {
+                previous.findById(id).ifPresent(removed::add);
+            }
+        }
+        return new RosterDiff(Collections.unmodifiableList(added), Collections.unmodifiableList(removed),
+                Collections.unmodifiableList(changed), Collections.unmodifiableList(changedFrom), false);
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    public int size() {
+        return added.size() + removed.size() + changed.size();
+    }
+
+    /**
+     * This method is used to get the employees to add or replace, added and changed.
+     * @return
+     */
+    public List<Employee> getUpserts() {
+        return Stream.concat(added.stream(), changed.stream()).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * This method is used to get the employees no longer in the roster as they were, removed and changed.
+     * @return
+     */
+    public List<Employee> getOutdated() {
+        return Stream.concat(removed.stream(), changedFrom.stream()).collect(Collectors.toUnmodifiableList());
+    }
+
+    public List<Integer> getRemovedIds() {
+        return removed.stream().map(Employee::getId).collect(Collectors.toUnmodifiableList());
+    }
+
+    /**
+     * This method is used to check whether a result computed from the employees the filter selects may have changed:
+     * whether the filter selects any employee as it is now or as it was. Every result may have changed in an initial
+     * diff.
+     * @param filter
+     * @return
+     */
+    public boolean touches(Predicate<Employee> filter) {
+        return initial || Stream.of(added, removed, changed, changedFrom).flatMap(List::stream).anyMatch(filter);
+    }
+
+    /**
+     * This method is used to check whether the highest salary may have changed: an employee now earns more, or one
+     * who earned it is removed or changed. Every result may have changed in an initial diff.
+     * @param highestSalary the highest salary of the previous roster
+     * @return
+     */
+    public boolean touchesHighestSalary(int highestSalary) {
+        return initial || getUpserts().stream().anyMatch(employee -> employee.getSalary() > highestSalary)
+                || getOutdated().stream().anyMatch(employee -> employee.getSalary() == highestSalary);
+    }
+
+    /**
+     * This method is used to check whether the n highest earning employees may have changed: one of them is removed
+     * or changed, or an employee now earns at least the lowest of them, or any when there were fewer than n. Every
+     * result may have changed in an initial diff.
+     * @param topEarners the n highest earning employees of the previous roster, as {@link EmployeeSnapshot#getTopEarners}
+     * @param n
+     * @return
+     */
+    public boolean touchesTopEarners(List<Employee> topEarners, int n) {
+        if (initial) {
+            return true;
+        }
+        Set<Integer> topIds = topEarners.stream().map(Employee::getId).collect(Collectors.toSet());
+        if (getOutdated().stream().anyMatch(employee -> topIds.contains(employee.getId()))) {
+            return true;
+        }
+        if (topEarners.size() < n) {
+            return !added.isEmpty() || !changed.isEmpty();
+        }
+        int lowestSalary = topEarners.get(topEarners.size() - 1).getSalary();
+        return getUpserts().stream().anyMatch(employee -> employee.getSalary() >= lowestSalary);
+    }
+
+    @Override
+    public String toString() {
+        return initial ? "initial roster of " + added.size()
+                : String.format("%d added, %d removed, %d changed", added.size(), removed.size(), changed.size());
+    }
+}
@@ -0,0 +1,372 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Immutable summary of the salaries of a roster, built in a single pass over the employees:
+ * <ul>
+ *     <li>the salaries, sorted, overall and per age band, for min, max, median and any percentile by rank;</li>
+ *     <li>the salary sum, overall and per age band, for the means;</li>
+ *     <li>the number of salaries in every histogram bucket of bucketWidth.</li>
+ * </ul>
+ * Two aggregates of disjoint parts of a roster merge into the aggregate of the whole, so large rosters are split and
+ * aggregated fork-join in parallel. Local creates and deletes are applied by merging the changed salaries in and out
+ * instead of aggregating the roster again.
+ * Age bands are split at ageBounds: below the first bound, between consecutive bounds, from the last bound up, and
+ * a last band for ages that are missing or not a number.
+ */
+public final class SalaryAggregate {
+
+    /**
+     * Rosters up to this size are aggregated on the calling thread.
+     */
+    static final int PARALLEL_THRESHOLD = 8192;
+
+    private static final int[] NONE = new int[0];
+
+    private final int bucketWidth;
+    private final int[] ageBounds;
+    private final int[] salaries;
+    private final long sum;
+    private final int[][] bandSalaries;
+    private final long[] bandSums;
+    private final TreeMap<Integer, Integer> buckets;
+
+    private SalaryAggregate(int bucketWidth, int[] ageBounds, int[] salaries, long sum, int[][] bandSalaries,
+                            long[] bandSums, TreeMap<Integer, Integer> buckets) {
+        this.bucketWidth = bucketWidth;
+        this.ageBounds = ageBounds;
+        this.salaries = salaries;
+        this.sum = sum;
+        this.bandSalaries = bandSalaries;
+        this.bandSums = bandSums;
+        this.buckets = buckets;
+    }
+
+    /**
+     * This method is used to aggregate a roster, in parallel on the common fork-join pool when it is large.
+     * @param employees
+     * @param bucketWidth
+     * @param ageBounds ascending
+     * @return
+     */
+    public static SalaryAggregate of(List<Employee> employees, int bucketWidth, int[] ageBounds) {
+        return of(employees.size(), (builder, row) -> builder.add(employees.get(row)), bucketWidth, ageBounds);
+    }
+
+    /**
+     * This method is used to aggregate a roster of the given size row by row, for layouts that read the salary and
+     * age of a row without creating its {@link Employee}. Large rosters are aggregated in parallel like
+     * {@link #of(List, int, int[])}, so the rows must be safe to read concurrently.
+     * @param size
+     * @param rows
+     * @param bucketWidth
+     * @param ageBounds ascending
+     * @return
+     */
+    public static SalaryAggregate of(int size, Rows rows, int bucketWidth, int[] ageBounds) {
+        AggregateTask task = new AggregateTask(rows, 0, size, bucketWidth, ageBounds);
+        return size <= PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    public static Builder builder(int bucketWidth, int[] ageBounds) {
+        return new Builder(bucketWidth, ageBounds);
+    }
+
+    public int getCount() {
+        return salaries.length;
+    }
+
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+     * This method is used to get the salaries in ascending order.
+     * @return
+     */
+    public int[] getSalaries() {
+        return salaries.clone();
+    }
+
+    public int getBucketWidth() {
+        return bucketWidth;
+    }
+
+    /**
+     * This method is used to get the number of salaries per histogram bucket, keyed and ordered by the lowest salary
+     * of the bucket. Empty buckets are left out.
+     * @return
+     */
+    public Map<Integer, Integer> getBuckets() {
+        return Collections.unmodifiableMap(buckets);
+    }
+
+    public int[] getAgeBounds() {
+        return ageBounds.clone();
+    }
+
+    /**
+     * This method is used to get the salaries of an age band in ascending order, see {@link #bandOf(String)}.
+     * @param band
+     * @return
+     */
+    public int[] getBandSalaries(int band) {
+        return bandSalaries[band].clone();
+    }
+
+    public long getBandSum(int band) {
+        return bandSums[band];
+    }
+
+    public int getBandCount() {
+        return bandSalaries.length;
+    }
+
+    /**
+     * This method is used to get the index of the age band of an age, the last band when it is not a number.
+     * @param age
+     * @return
+     */
+    public int bandOf(String age) {
+        return bandOf(ageBounds, age);
+    }
+
+    /**
+     * This method is used to get the aggregate of this and another aggregate of a disjoint part of the roster.
+     * @param other
+     * @return
+     */
+    public SalaryAggregate merge(SalaryAggregate other) {
+        checkCompatible(other);
+        int[][] mergedBands = new int[bandSalaries.length][];
+        long[] mergedBandSums = new long[bandSums.length];
+        for (int band = 0; band < bandSalaries.length; band++) {
+            mergedBands[band] = patch(bandSalaries[band], NONE, other.bandSalaries[band]);
+            mergedBandSums[band] = bandSums[band] + other.bandSums[band];
+        }
+        TreeMap<Integer, Integer> mergedBuckets = new TreeMap<>(buckets);
+        other.buckets.forEach((bucket, count) -> mergedBuckets.merge(bucket, count, Integer::sum));
+        return new SalaryAggregate(bucketWidth, ageBounds, patch(salaries, NONE, other.salaries), sum + other.sum,
+                mergedBands, mergedBandSums, mergedBuckets);
+    }
+
+    /**
+     * This method is used to get the aggregate after a batch of changes, by merging the salaries of the removed
+     * employees out and those of the added employees in, instead of aggregating the roster again.
+     * @param removed the employees to take out, as they were aggregated
+     * @param added
+     * @return
+     */
+    public SalaryAggregate withChanges(Collection<Employee> removed, Collection<Employee> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        SalaryAggregate out = builder(bucketWidth, ageBounds).addAll(removed).build();
+        SalaryAggregate in = builder(bucketWidth, ageBounds).addAll(added).build();
+        int[][] updatedBands = new int[bandSalaries.length][];
+        long[] updatedBandSums = new long[bandSums.length];
+        for (int band = 0; band < bandSalaries.length; band++) {
+            updatedBands[band] = patch(bandSalaries[band], out.bandSalaries[band], in.bandSalaries[band]);
+            updatedBandSums[band] = bandSums[band] - out.bandSums[band] + in.bandSums[band];
+        }
+        TreeMap<Integer, Integer> updatedBuckets = new TreeMap<>(buckets);
+        out.buckets.forEach((bucket, count) -> updatedBuckets.computeIfPresent(bucket,
+                (key, existing) -> existing > count ? existing - count : null));
+        in.buckets.forEach((bucket, count) -> updatedBuckets.merge(bucket, count, Integer::sum));
+        return new SalaryAggregate(bucketWidth, ageBounds, patch(salaries, out.salaries, in.salaries),
+                sum - out.sum + in.sum, updatedBands, updatedBandSums, updatedBuckets);
+    }
+
+    /**
+     * This method is used to get the aggregate after a roster change, or null when the diff has no previous roster
+     * to patch and the roster has to be aggregated again.
+     * @param diff
+     * @return
+     */
+    public SalaryAggregate withDiff(RosterDiff diff) {
+        return diff.isInitial() ? null : withChanges(diff.getOutdated(), diff.getUpserts());
+    }
+
+    private void checkCompatible(SalaryAggregate other) {
+        if (bucketWidth != other.bucketWidth || !Arrays.equals(ageBounds, other.ageBounds)) {
+            throw new IllegalArgumentException("Salary aggregates with different buckets or age bands cannot be merged");
+        }
+    }
+
+    /**
+     * Merges the sorted inserted values into the sorted values, leaving out one occurrence of every removed value,
+     * in one pass.
+     */
+    private static int[] patch(int[] sorted, int[] removed, int[] inserted) {
+        int[] patched = new int[sorted.length + inserted.length];
+        int size = 0;
+        int nextRemoved = 0;
+        int nextInserted = 0;
+        for (int value : sorted) {
+            while (nextRemoved < removed.length && removed[nextRemoved] < value) {
+                nextRemoved++;
+            }
+            if (nextRemoved < removed.length && removed[nextRemoved] == value) {
+                nextRemoved++;
+                continue;
+            }
+            while (nextInserted < inserted.length && inserted[nextInserted] < value) {
+                patched[size++] = inserted[nextInserted++];
+            }
+            patched[size++] = value;
+        }
+        while (nextInserted < inserted.length) {
+            patched[size++] = inserted[nextInserted++];
+        }
+        return size == patched.length ? patched : Arrays.copyOf(patched, size);
+    }
+
+    private static int bandOf(int[] ageBounds, String age) {
+        int years;
+        try {
+            years = Integer.parseInt(age.trim());
+        } catch (NullPointerException | NumberFormatException ex) {
+            return ageBounds.length + 1;
+        }
+        return bandOf(ageBounds, years);
+    }
+
+    private static int bandOf(int[] ageBounds, int years) {
+        int band = 0;
+        while (band < ageBounds.length && years >= ageBounds[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    /**
+     * This interface adds the row of a roster to a builder, see {@link #of(int, Rows, int, int[])}.
+     */
+    @FunctionalInterface
+    public interface Rows {
+
+        void addTo(Builder builder, int row);
+    }
+
+    /**
+     * This class aggregates employees one at a time, for a part of a roster or a roster that streams in.
+     */
+    public static final class Builder {
+
+        private final int bucketWidth;
+        private final int[] ageBounds;
+        private final int[][] bandSalaries;
+        private final int[] bandSizes;
+        private final long[] bandSums;
+        private final TreeMap<Integer, Integer> buckets = new TreeMap<>();
+        private long sum;
+
+        private Builder(int bucketWidth, int[] ageBounds) {
+            if (bucketWidth < 1) {
+                throw new IllegalArgumentException("The salary histogram bucket width must be at least 1");
+            }
+            this.bucketWidth = bucketWidth;
+            this.ageBounds = ageBounds.clone();
+            int bands = ageBounds.length + 2;
+            bandSalaries = new int[bands][];
+            Arrays.fill(bandSalaries, NONE);
+            bandSizes = new int[bands];
+            bandSums = new long[bands];
+        }
+
+        public Builder add(Employee employee) {
+            return add(employee.getSalary(), employee.getAge());
+        }
+
+        /**
+         * This method is used to add the salary of an employee of the given age, as text like {@link Employee#getAge()}.
+         * @param salary
+         * @param age
+         * @return
+         */
+        public Builder add(int salary, String age) {
+            return addToBand(salary, bandOf(ageBounds, age));
+        }
+
+        /**
+         * This method is used to add the salary of an employee of the given age in years.
+         * @param salary
+         * @param years
+         * @return
+         */
+        public Builder add(int salary, int years) {
+            return addToBand(salary, bandOf(ageBounds, years));
+        }
+
+        public Builder addAll(Collection<Employee> employees) {
+            employees.forEach(this::add);
+            return this;
+        }
+
+        private Builder addToBand(int salary, int band) {
+            if (bandSizes[band] == bandSalaries[band].length) {
+                bandSalaries[band] = Arrays.copyOf(bandSalaries[band], Math.max(8, bandSizes[band] * 2));
+            }
+            bandSalaries[band][bandSizes[band]++] = salary;
+            bandSums[band] += salary;
+            sum += salary;
+            buckets.merge(Math.floorDiv(salary, bucketWidth) * bucketWidth, 1, Integer::sum);
+            return this;
+        }
+
+        public SalaryAggregate build() {
+            int[][] sortedBands = new int[bandSalaries.length][];
+            int[] all = NONE;
+            for (int band = 0; band < bandSalaries.length; band++) {
+                sortedBands[band] = Arrays.copyOf(bandSalaries[band], bandSizes[band]);
+                Arrays.sort(sortedBands[band]);
+                all = patch(all, NONE, sortedBands[band]);
+            }
+            return new SalaryAggregate(bucketWidth, ageBounds, all, sum, sortedBands, bandSums.clone(),
+                    new TreeMap<>(buckets));
+        }
+    }
+
+    private static final class AggregateTask extends RecursiveTask<SalaryAggregate> {
+
+        private final Rows rows;
+        private final int from;
+        private final int to;
+        private final int bucketWidth;
+        private final int[] ageBounds;
+
+        private AggregateTask(Rows rows, int from, int to, int bucketWidth, int[] ageBounds) {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.bucketWidth = bucketWidth;
+            this.ageBounds = ageBounds;
+        }
+
+        @Override
+        protected SalaryAggregate compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                Builder builder = builder(bucketWidth, ageBounds);
+                for (int row = from; row < to; row++) {
+                    rows.addTo(builder, row);
+                }
+                return builder.build();
+            }
+            int middle = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(rows, from, middle, bucketWidth, ageBounds);
+            left.fork();
+            SalaryAggregate right = new AggregateTask(rows, middle, to, bucketWidth, ageBounds).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable index of employees ordered by salary, highest first (ties by id).
+ * The highest salary is the first slot and the top n are a prefix, so neither needs a scan or a sort.
+ * Adding or removing one employee binary-searches its slot and shifts the array instead of re-sorting, and a batch of
+ * changes sorts only the added employees and merges them in.
+ */
+public final class SalaryIndex {
+
+    public static final Comparator<Employee> BY_SALARY_DESC = Comparator.comparingInt(Employee::getSalary).reversed()
+            .thenComparingInt(Employee::getId);
+
+    private static final SalaryIndex EMPTY = new SalaryIndex(new Employee[0]);
+
+    private final Employee[] bySalaryDesc;
+
+    private SalaryIndex(Employee[] bySalaryDesc) {
+        this.bySalaryDesc = bySalaryDesc;
+    }
+
+    public static SalaryIndex of(Collection<Employee> employees) {
+        if (employees.isEmpty()) {
+            return EMPTY;
+        }
+        Employee[] sorted = employees.toArray(new Employee[0]);
+        Arrays.sort(sorted, BY_SALARY_DESC);
+        return new SalaryIndex(sorted);
+    }
+
+    public int size() {
+        return bySalaryDesc.length;
+    }
+
+    /**
+     * This method is used to get the highest salary in O(1), null for an empty index.
+     * @return
+     */
+    public Integer getHighestSalary() {
+        return bySalaryDesc.length == 0 ? null : bySalaryDesc[0].getSalary();
+    }
+
+    /**
+     * This method is used to get the n highest earning employees in O(n).
+     * @param n
+     * @return
+     */
+    public List<Employee> top(int n) {
+        int count = Math.min(Math.max(n, 0), bySalaryDesc.length);
+        return count == 0 ? Collections.emptyList() : List.of(Arrays.copyOf(bySalaryDesc, count));
+    }
+
+    public SalaryIndex withAdded(Employee employee) {
+        int slot = Arrays.binarySearch(bySalaryDesc, employee, BY_SALARY_DESC);
+        int insertAt = slot >= 0 ? slot : -slot - 1;
+        Employee[] updated = new Employee[bySalaryDesc.length + 1];
+        System.arraycopy(bySalaryDesc, 0, updated, 0, insertAt);
+        updated[insertAt] = employee;
+        System.arraycopy(bySalaryDesc, insertAt, updated, insertAt + 1, bySalaryDesc.length - insertAt);
+        return new SalaryIndex(updated);
+    }
+
+    public SalaryIndex withRemoved(Employee employee) {
+        int slot = Arrays.binarySearch(bySalaryDesc, employee, BY_SALARY_DESC);
+        if (slot < 0) {
+            return this;
+        }
+        Employee[] updated = new Employee[bySalaryDesc.length - 1];
+        System.arraycopy(bySalaryDesc, 0, updated, 0, slot);
+        System.arraycopy(bySalaryDesc, slot + 1, updated, slot, bySalaryDesc.length - slot - 1);
+        return new SalaryIndex(updated);
+    }
+
+    /**
+     * This method is used to get an index with a batch of changes applied at once.
+     * @param removed the employees to drop, as they are in this index
+     * @param added
+     * @return
+     */
+    public SalaryIndex withChanges(Collection<Employee> removed, Collection<Employee> added) {
+        boolean[] dropped = new boolean[bySalaryDesc.length];
+        int droppedCount = 0;
+        for (Employee employee : removed) {
+            int slot = Arrays.binarySearch(bySalaryDesc, employee, BY_SALARY_DESC);
+            if (slot >= 0 && !dropped[slot]) {
+                dropped[slot] = true;
+                droppedCount++;
+            }
+        }
+        if (droppedCount == 0 && added.isEmpty()) {
+            return this;
+        }
+        Employee[] inserted = added.toArray(new Employee[0]);
+        Arrays.sort(inserted, BY_SALARY_DESC);
+        Employee[] updated = new Employee[bySalaryDesc.length - droppedCount + inserted.length];
+        int size = 0;
+        int next = 0;
+        for (int slot = 0; slot < bySalaryDesc.length; slot++) {
+            if (dropped[slot]) {
+                continue;
+            }
+            while (next < inserted.length && BY_SALARY_DESC.compare(inserted[next], bySalaryDesc[slot]) < 0) {
+                updated[size++] = inserted[next++];
+            }
+            updated[size++] = bySalaryDesc[slot];
+        }
+        while (next < inserted.length) {
+            updated[size++] = inserted[next++];
+        }
+        return updated.length == 0 ? EMPTY : new SalaryIndex(updated);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory layouts for the employee snapshot, selected with employee.snapshot.layout.
+ * Rosters are deduplicated by id before any index is built: a later employee with the same id replaces an earlier
+ * one, as in {@link RosterDiff#between(EmployeeSnapshot, List)}, so every read sees the same employees.
+ */
+public enum SnapshotLayout {
+
+    /**
+     * Keeps the parsed {@link Employee} objects. Cheapest to build and to update locally.
+     */
+    OBJECTS {
+        @Override
+        EmployeeSnapshot build(List<Employee> employees, Instant refreshedAt) {
+            return new HeapEmployeeSnapshot(employees, refreshedAt);
+        }
+
+        @Override
+        EmployeeSnapshot rebuild(EmployeeSnapshot previous, List<Employee> employees, RosterDiff diff,
+                                 Instant refreshedAt) {
+            return previous instanceof HeapEmployeeSnapshot
+                    ? ((HeapEmployeeSnapshot) previous).withRefresh(employees, diff, refreshedAt)
+                    : build(employees, refreshedAt);
+        }
+    },
+
+    /**
+     * Keeps primitive columns and a name dictionary, and only creates {@link Employee} objects for returned rows.
+     * Uses a fraction of the heap for large rosters.
+     */
+    COLUMNAR {
+        @Override
+        EmployeeSnapshot build(List<Employee> employees, Instant refreshedAt) {
+            return new ColumnarEmployeeSnapshot(employees, refreshedAt);
+        }
+
+        /**
+         * Keeps the columns when nothing changed, and otherwise rebuilds them, which costs about as much as
+         * patching them.
+         */
+        @Override
+        EmployeeSnapshot rebuild(EmployeeSnapshot previous, List<Employee> employees, RosterDiff diff,
+                                 Instant refreshedAt) {
+            return previous instanceof ColumnarEmployeeSnapshot && diff.isEmpty()
+                    ? ((ColumnarEmployeeSnapshot) previous).withRefreshedAt(refreshedAt)
+                    : build(employees, refreshedAt);
+        }
+    };
+
+    public EmployeeSnapshot create(List<Employee> employees, Instant refreshedAt) {
+        return build(uniqueById(employees), refreshedAt);
+    }
+
+    /**
+     * This method is used to get the snapshot of a roster fetched from upstream, derived from the previous snapshot
+     * where this layout can apply the diff, and built from the roster otherwise.
+     * @param previous the previous snapshot, null when there is none
+     * @param employees
+     * @param diff how the roster differs from the previous snapshot
+     * @param refreshedAt
+     * @return
+     */
+    public EmployeeSnapshot refresh(EmployeeSnapshot previous, List<Employee> employees, RosterDiff diff,
+                                    Instant refreshedAt) {
+        return rebuild(previous, uniqueById(employees), diff, refreshedAt);
+    }
+
+    abstract EmployeeSnapshot build(List<Employee> employees, Instant refreshedAt);
+
+    abstract EmployeeSnapshot rebuild(EmployeeSnapshot previous, List<Employee> employees, RosterDiff diff,
+                                      Instant refreshedAt);
+
+    /**
+     * This method is used to keep one employee per id, the last one, at the position of the first.
+     * @param employees
+     * @return the roster itself when it has no duplicate ids
+     */
+    static List<Employee> uniqueById(List<Employee> employees) {
+        Map<Integer, Employee> unique = new LinkedHashMap<>();
+        employees.forEach(employee -> unique.put(employee.getId(), employee));
+        return unique.size() == employees.size() ? employees : new ArrayList<>(unique.values());
+    }
+}
@@ -3,9 +3,12 @@ package com.example.rqchallenge.employees.utils;
 public class AppConstants {
 
     public static final String BASE_URL = "https://dummy.restapiexample.com/api/v1";
-    public static final String BASE_EMPLOYEES_URL = BASE_URL + "/employees";
-    public static final String CREATE_EMPLOYEE_URL = BASE_URL + "/create";
-    public static final String DELETE_EMPLOYEE_URL = BASE_URL + "/delete";
+    public static final String EMPLOYEES_PATH = "/employees";
+    public static final String CREATE_PATH = "/create";
+    public static final String DELETE_PATH = "/delete";
+    public static final String BASE_EMPLOYEES_URL = BASE_URL + EMPLOYEES_PATH;
+    public static final String CREATE_EMPLOYEE_URL = BASE_URL + CREATE_PATH;
+    public static final String DELETE_EMPLOYEE_URL = BASE_URL + DELETE_PATH;
 
     public static final String GET = "GET";
     public static final String PUT = "PUT";
@@ -13,5 +16,8 @@ public class AppConstants {
     public static final String DELETE = "DELETE";
     public static final String STATUS = "status";
     public static final String SUCCESS = "success";
+    public static final String DATA = "data";
     public static final String MOCK_DATA = "_employeeFromMockData";
+    public static final String EMPLOYEE_UPSTREAM = "employeeUpstream";
+    public static final int TOP_EARNERS_LIMIT = 10;
 }
@@ -0,0 +1,88 @@
+package com.example.rqchallenge.employees.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * This class runs the items of a batch concurrently on a fixed pool of employee.batch.concurrency threads.
+ * The pool is shared by all running batches, so it bounds how many upstream calls they make at once and a large
+ * batch queues its items instead of taking over the upstream connection pool.
+ */
+@Component
+public class BatchFanOut {
+
+    private final ExecutorService executor;
+
+    public BatchFanOut(@Value("${employee.batch.concurrency:16}") int concurrency) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "employee-batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * This method is used to run the task for every item and collect the results in item order.
+     * A failing item does not stop the batch, its result comes from onError instead.
+     * @param items
+     * @param task
+     * @param onError
+     * @return
+     * @throws InterruptedException
+     */
+    public <T, R> List<R> map(List<T> items, ItemTask<T, R> task, ItemError<T, R> onError) throws InterruptedException {
+        List<Future<R>> futures = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            T item = items.get(i);
+            futures.add(executor.submit(() -> {
+                try {
+                    return task.apply(index, item);
+                } catch (Exception ex) {
+                    return onError.apply(index, item, ex);
+                }
+            }));
+        }
+        List<R> results = new ArrayList<>(items.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException ex) {
+            //only an Error, or a RuntimeException thrown by onError, gets here
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw (Error) ex.getCause();
+        } catch (InterruptedException ex) {
+            futures.forEach(future -> future.cancel(true));
+            throw ex;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface ItemTask<T, R> {
+        R apply(int index, T item) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface ItemError<T, R> {
+        R apply(int index, T item, Exception ex);
+    }
+}
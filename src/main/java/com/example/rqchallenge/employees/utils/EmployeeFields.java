@@ -0,0 +1,114 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * This class is used to project employees onto the JSON fields named in the fields request parameter.
+ * Employees are serialized by the application ObjectMapper through the {@link Projection} filter, which writes every
+ * field unless a request asks for fewer, so projected responses are written straight from the employees without
+ * building an intermediate copy of them. Only the handlers marked {@link Projected} are projected; the parameter is
+ * ignored elsewhere.
+ */
+public final class EmployeeFields {
+
+    public static final String PARAM = "fields";
+
+    public static final String FILTER_ID = "employeeFields";
+
+    /**
+     * JSON names of the employee fields.
+     */
+    public static final Set<String> NAMES = Set.of("id", "name", "salary", "age", "profile_image");
+
+    /**
+     * Filters that write every employee field, used when a response is not projected.
+     */
+    public static final FilterProvider ALL = new SimpleFilterProvider()
+            .addFilter(FILTER_ID, SimpleBeanPropertyFilter.serializeAll());
+
+    private EmployeeFields() {
+    }
+
+    /**
+     * This method is used to parse the comma separated fields parameter.
+     * @param fields
+     * @return the field names, empty when the parameter is absent or blank
+     * @throws IllegalArgumentException when a name is not an employee field
+     */
+    public static Set<String> parse(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        if (fields == null) {
+            return names;
+        }
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (!NAMES.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown employee field " + trimmed + ", expected one of " + NAMES);
+            }
+            names.add(trimmed);
+        }
+        return names;
+    }
+
+    /**
+     * This method is used to check that the fields parameter only names employee fields.
+     * @param fields
+     * @return
+     */
+    public static boolean isValid(String fields) {
+        try {
+            parse(fields);
+            return true;
+        } catch (IllegalArgumentException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * This method is used to get the filters for the fields parameter. Unknown names are ignored here, requests
+     * naming them are rejected by the controllers before anything is written.
+     * @param fields
+     * @return
+     */
+    public static FilterProvider filtersFor(String fields) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (NAMES.contains(name.trim())) {
+                names.add(name.trim());
+            }
+        }
+        return names.isEmpty() ? ALL
+                : new SimpleFilterProvider().addFilter(FILTER_ID, SimpleBeanPropertyFilter.filterOutAllExcept(names));
+    }
+
+    /**
+     * Marks the handlers whose employees are projected onto the fields parameter. They reject unknown fields before
+     * anything is written, see {@link #isValid(String)}.
+     */
+    @Documented
+    @Target(ElementType.METHOD)
+    @Retention(RetentionPolicy.RUNTIME)
+    public @interface Projected {
+    }
+
+    /**
+     * Mix-in that puts the employee under the {@link #FILTER_ID} filter.
+     */
+    @JsonFilter(FILTER_ID)
+    public interface Projection {
+    }
+}
@@ -45,6 +45,12 @@ public class EmployeeMockDataProvider {
         return List.of(AppConstants.MOCK_DATA);
     }
 
+    public List<Employee> getTopEarners(int n) {
+        logger.debug("Providing raw data for getTopEarners : {}", n);
+        List<Employee> employees = getAllEmployees();
+        return employees.subList(0, Math.min(Math.max(n, 0), employees.size()));
+    }
+
     public Employee createEmployee(Map<String, Object> emp) {
         logger.debug("Providing raw data for createEmployee");
         return new Employee(3, emp.get("name") + AppConstants.MOCK_DATA, 0, "0", "");
@@ -0,0 +1,176 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.store.NameQuery;
+import com.example.rqchallenge.employees.store.SalaryAggregate;
+import com.example.rqchallenge.employees.store.SalaryIndex;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * This class is used to read the upstream employee list token by token.
+ * Only one employee is bound at a time, so the aggregates below never hold the response body or the full roster.
+ */
+public final class EmployeeStreamParser {
+
+    private static final ObjectReader EMPLOYEE_READER = new ObjectMapper().readerFor(Employee.class);
+
+    private static final Comparator<Employee> BY_ID = Comparator.comparingInt(Employee::getId);
+
+    private EmployeeStreamParser() {
+    }
+
+    /**
+     * This method is used to pass every employee in the "data" array of the response to the consumer.
+     * @param body
+     * @param consumer
+     * @throws IOException when the body is empty or not an employee list response
+     */
+    public static void forEachEmployee(InputStream body, Consumer<Employee> consumer) throws IOException {
+        try (JsonParser parser = EMPLOYEE_READER.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an employee list response");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (AppConstants.DATA.equals(field) && value == JsonToken.START_ARRAY) {
+                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                        continue;
+                    }
+                    //the iterator binds one element at a time and stops at the end of the array
+                    try (MappingIterator<Employee> employees = EMPLOYEE_READER.readValues(parser)) {
+                        while (employees.hasNextValue()) {
+                            consumer.accept(employees.nextValue());
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+    }
+
+    /**
+     * This method is used to read all employees of the response.
+     * @param body
+     * @return
+     * @throws IOException
+     */
+    public static List<Employee> readAll(InputStream body) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        forEachEmployee(body, employees::add);
+        return employees;
+    }
+
+    /**
+     * This method is used to get the highest salary of the response, null when it has no employees.
+     * @param body
+     * @return
+     * @throws IOException
+     */
+    public static Integer highestSalary(InputStream body) throws IOException {
+        int[] highest = {Integer.MIN_VALUE};
+        boolean[] found = {false};
+        forEachEmployee(body, employee -> {
+            highest[0] = Math.max(highest[0], employee.getSalary());
+            found[0] = true;
+        });
+        return found[0] ? highest[0] : null;
+    }
+
+    /**
+     * This method is used to aggregate the salaries of the response in the same pass that reads it.
+     * @param body
+     * @param bucketWidth
+     * @param ageBounds
+     * @return
+     * @throws IOException
+     */
+    public static SalaryAggregate salaryAggregate(InputStream body, int bucketWidth, int[] ageBounds) throws IOException {
+        SalaryAggregate.Builder builder = SalaryAggregate.builder(bucketWidth, ageBounds);
+        forEachEmployee(body, builder::add);
+        return builder.build();
+    }
+
+    /**
+     * This method is used to get the n highest earning employees of the response, keeping only n of them in memory.
+     * @param body
+     * @param n
+     * @return
+     * @throws IOException
+     */
+    public static List<Employee> topEarners(InputStream body, int n) throws IOException {
+        if (n < 1) {
+            forEachEmployee(body, employee -> { });
+            return Collections.emptyList();
+        }
+        //min-heap on the salary order, so the head is the lowest earner currently kept
+        PriorityQueue<Employee> kept = new PriorityQueue<>(n + 1, SalaryIndex.BY_SALARY_DESC.reversed());
+        forEachEmployee(body, employee -> {
+            kept.offer(employee);
+            if (kept.size() > n) {
+                kept.poll();
+            }
+        });
+        List<Employee> topEarners = new ArrayList<>(kept);
+        topEarners.sort(SalaryIndex.BY_SALARY_DESC);
+        return topEarners;
+    }
+
+    /**
+     * This method is used to get the employees of the response matching the name query, in employee id order.
+     * Only the limit lowest matching ids after the query cursor are kept in memory, since upstream order is not id order.
+     * @param body
+     * @param query
+     * @return
+     * @throws IOException
+     */
+    public static List<Employee> searchByName(InputStream body, NameQuery query) throws IOException {
+        return firstById(body, query.getAfter(), query.getLimit(), query::matches);
+    }
+
+    /**
+     * This method is used to get a page of the employees of the response in id order, starting after the given id.
+     * @param body
+     * @param after
+     * @param limit
+     * @return
+     * @throws IOException
+     */
+    public static List<Employee> page(InputStream body, int after, int limit) throws IOException {
+        return firstById(body, after, limit, employee -> true);
+    }
+
+    private static List<Employee> firstById(InputStream body, int after, int limit, Predicate<Employee> filter)
+            throws IOException {
+        int kept = limit > 0 ? limit : Integer.MAX_VALUE;
+        //max-heap on id, so the head is the highest id currently kept
+        PriorityQueue<Employee> lowest = new PriorityQueue<>(BY_ID.reversed());
+        forEachEmployee(body, employee -> {
+            if ((after == NameQuery.FROM_START || employee.getId() > after) && filter.test(employee)) {
+                lowest.offer(employee);
+                if (lowest.size() > kept) {
+                    lowest.poll();
+                }
+            }
+        });
+        List<Employee> employees = new ArrayList<>(lowest);
+        employees.sort(BY_ID);
+        return employees;
+    }
+}
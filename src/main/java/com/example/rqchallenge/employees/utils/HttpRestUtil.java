@@ -1,24 +1,44 @@
 package com.example.rqchallenge.employees.utils;
 
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.util.Optional;
 
+/**
+ * This class makes every blocking upstream call and times it as employee.upstream.requests. Calls go through the
+ * employeeUpstream circuit breaker, which fails fast while upstream is failing or slow, and bulkhead, which caps the
+ * calls in flight; see {@link com.example.rqchallenge.employees.config.UpstreamResilienceConfig}. Within that cap the
+ * {@link UpstreamConcurrencyLimiter} adapts the calls in flight to what upstream sustains and backs off on 429.
+ */
 @Component
 public class HttpRestUtil {
 
     public static final Logger logger = LoggerFactory.getLogger(HttpRestUtil.class);
 
-    private static RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private RestTemplate restTemplate;
 
-    public static Optional<String> callRestAPI(String url, HttpHeaders headers, String methodType, Optional<String> requestBody) {
+    @Autowired
+    private UpstreamMetrics upstreamMetrics;
+
+    @Autowired
+    private UpstreamConcurrencyLimiter upstreamConcurrencyLimiter;
+
+    @CircuitBreaker(name = AppConstants.EMPLOYEE_UPSTREAM)
+    @Bulkhead(name = AppConstants.EMPLOYEE_UPSTREAM)
+    public Optional<String> callRestAPI(String url, HttpHeaders headers, String methodType, Optional<String> requestBody) {
         logger.debug("Calling REST URL : {}", url);
         HttpEntity<String> entity = new HttpEntity<>(requestBody.orElse("parameters"), headers);
         HttpMethod method;
@@ -39,12 +59,61 @@ public class HttpRestUtil {
                 logger.error("Provided methodType : {} is not supported by HttpUtil.", methodType);
                 return Optional.empty();
         }
+        UpstreamConcurrencyLimiter.Permit permit = upstreamConcurrencyLimiter.acquire();
+        Timer.Sample sample = upstreamMetrics.start();
         try {
             ResponseEntity<String> response = restTemplate.exchange(url, method, entity, String.class);
+            permit.succeeded(true);
+            upstreamMetrics.stop(sample, methodType, url, null);
             return Optional.ofNullable(response.getBody());
         } catch (Exception ex) {
-            logger.error("Error occurred while calling REST API : {} ", url, ex);
+            permit.failed(ex);
+            upstreamMetrics.stop(sample, methodType, url, ex);
+            logFailure("calling", url, ex);
             throw ex;
         }
     }
+
+    /**
+     * This method is used to GET the url and hand the response body to the reader as it streams in,
+     * without first copying it into a String.
+     * @param url
+     * @param reader
+     * @return the value produced by the reader
+     */
+    @CircuitBreaker(name = AppConstants.EMPLOYEE_UPSTREAM)
+    @Bulkhead(name = AppConstants.EMPLOYEE_UPSTREAM)
+    public <T> T streamRestAPI(String url, ResponseBodyReader<T> reader) {
+        logger.debug("Streaming REST URL : {}", url);
+        UpstreamConcurrencyLimiter.Permit permit = upstreamConcurrencyLimiter.acquire();
+        Timer.Sample sample = upstreamMetrics.start();
+        try {
+            T result = restTemplate.execute(url, HttpMethod.GET, null, response -> reader.read(response.getBody()));
+            //the time taken says more about the roster size than about upstream load
+            permit.succeeded(false);
+            upstreamMetrics.stop(sample, AppConstants.GET, url, null);
+            return result;
+        } catch (Exception ex) {
+            permit.failed(ex);
+            upstreamMetrics.stop(sample, AppConstants.GET, url, ex);
+            logFailure("streaming", url, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * This method is used to log a failed upstream call. A 4xx answer, such as the 404 for an unknown id, is expected
+     * and logged as a warning without the stack trace; 5xx answers and I/O failures are errors.
+     * @param action
+     * @param url
+     * @param ex
+     */
+    private static void logFailure(String action, String url, Exception ex) {
+        if (ex instanceof HttpClientErrorException) {
+            logger.warn("Upstream answered {} while {} REST API : {}", ((HttpClientErrorException) ex).getStatusCode(),
+                    action, url);
+        } else {
+            logger.error("Error occurred while {} REST API : {} ", action, url, ex);
+        }
+    }
 }
@@ -0,0 +1,57 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * This class is used to write employees as newline-delimited JSON, one line per employee, as they are passed in.
+ * Output goes through the generator's fixed buffer, so memory stays constant whatever the number of employees.
+ * The first line is flushed right away so the client sees the first byte without waiting for a full buffer.
+ */
+public class NdjsonEmployeeWriter implements Consumer<Employee>, Closeable {
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    private boolean flushed;
+
+    public NdjsonEmployeeWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        generator = objectMapper.getFactory().createGenerator(out);
+        //the response stream belongs to the servlet container
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        writer = objectMapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * This method is used to write the employee as one line.
+     * @param employee
+     * @throws UncheckedIOException when the client cannot be written to, typically because it went away
+     */
+    @Override
+    public void accept(Employee employee) {
+        try {
+            writer.writeValue(generator, employee);
+            generator.writeRaw('\n');
+            if (!flushed) {
+                generator.flush();
+                flushed = true;
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
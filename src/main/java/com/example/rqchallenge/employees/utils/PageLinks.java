@@ -0,0 +1,40 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This class is used to build the Link header of keyset paginated employee lists.
+ * Pages are ordered by employee id and the cursor of the next page is the id of the last employee, so a page stays
+ * correct when employees are created or deleted between requests.
+ */
+public final class PageLinks {
+
+    public static final String LIMIT = "limit";
+
+    public static final String AFTER = "after";
+
+    private PageLinks() {
+    }
+
+    /**
+     * This method is used to get the link to the page after the given one, empty when the page is the last one.
+     * The link is a query-only reference, so it resolves against the route that served the page.
+     * @param page
+     * @param limit
+     * @param query the other query parameters of the request, carried over to the next page
+     * @return
+     */
+    public static Optional<String> next(List<Employee> page, int limit, UriComponentsBuilder query) {
+        if (limit < 1 || page.size() < limit) {
+            return Optional.empty();
+        }
+        String uri = query.queryParam(LIMIT, limit)
+                .queryParam(AFTER, page.get(page.size() - 1).getId())
+                .encode().build().toUriString();
+        return Optional.of("<" + uri + ">; rel=\"next\"");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rqchallenge.employees.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Consumes an upstream response body while it is still streaming in.
+ */
+@FunctionalInterface
+public interface ResponseBodyReader<T> {
+
+    T read(InputStream body) throws IOException;
+}
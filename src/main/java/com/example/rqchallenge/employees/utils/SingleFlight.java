@@ -0,0 +1,116 @@
+package com.example.rqchallenge.employees.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * This class coalesces concurrent identical upstream calls. The first caller for a key runs the call, every caller
+ * that arrives while it is in flight waits for and shares the same result or exception. Nothing is kept once the call
+ * completes, so this is not a cache. Coalesced callers are counted in employee.upstream.coalesced, tagged by call.
+ * Non-blocking callers share one subscription to the in-flight {@link Mono} instead.
+ */
+@Component
+public class SingleFlight {
+
+    public static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<String, Mono<Object>> inFlightAsync = new ConcurrentHashMap<>();
+
+    private final MeterRegistry meterRegistry;
+
+    public SingleFlight(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * This method is used to run the loader, or join the identical call already in flight.
+     * @param call name of the upstream call, used as the metric tag
+     * @param key identifies identical calls within the same call name
+     * @param loader
+     * @return
+     * @throws Exception the loader's exception, for the caller that ran it and every caller that joined it
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String call, String key, Callable<V> loader) throws Exception {
+        String flightKey = call + ":" + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            coalesced(call).increment();
+            logger.debug("Joining in-flight upstream call {}", flightKey);
+            return (V) await(existing);
+        }
+        try {
+            V value = loader.call();
+            flight.complete(value);
+            return value;
+        } catch (Exception | Error ex) {
+            flight.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    /**
+     * This method is used to subscribe to the loader, or join the identical call already in flight, without blocking.
+     * The loader is subscribed once and its result or error is replayed to every caller that joined it.
+     * @param call name of the upstream call, used as the metric tag
+     * @param key identifies identical calls within the same call name
+     * @param loader
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    public <V> Mono<V> executeAsync(String call, String key, Supplier<Mono<V>> loader) {
+        String flightKey = call + ":" + key;
+        return Mono.defer(() -> {
+            AtomicReference<Mono<Object>> flight = new AtomicReference<>();
+            Mono<Object> existing = inFlightAsync.computeIfAbsent(flightKey, ignored -> {
+                Mono<Object> shared = Mono.defer(loader).map(value -> (Object) value)
+                        //remove only this flight, not a later one started meanwhile
+                        .doFinally(signal -> inFlightAsync.remove(flightKey, flight.get()))
+                        .cache();
+                flight.set(shared);
+                return shared;
+            });
+            if (existing != flight.get()) {
+                coalesced(call).increment();
+                logger.debug("Joining in-flight upstream call {}", flightKey);
+            }
+            return (Mono<V>) existing;
+        });
+    }
+
+    private Counter coalesced(String call) {
+        return Counter.builder("employee.upstream.coalesced")
+                .description("Callers that shared an identical upstream call already in flight")
+                .tag("call", call)
+                .register(meterRegistry);
+    }
+
+    private static Object await(CompletableFuture<Object> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.config.UpstreamLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class limits the upstream calls in flight to a limit that adapts to how upstream copes (AIMD):
+ * <ul>
+ *     <li>every call that returns within the latency threshold while the limit is in use raises it by 1/limit,
+ *     about one more call per round trip;</li>
+ *     <li>a slower call lowers it by 10%;</li>
+ *     <li>a 429 halves it and pauses all calls for the Retry-After the response asked for.</li>
+ * </ul>
+ * Calls already in flight when the limit was lowered do not lower it again, so one burst of 429s or slow responses
+ * counts as a single backoff.
+ * Callers over the limit queue for up to max-wait, and are then rejected with {@link UpstreamLimitExceededException}
+ * so the service serves them fallback data. A caller is rejected at once when the pause outlasts its wait.
+ * Publishes employee.upstream.limit, employee.upstream.inflight, employee.upstream.throttled (429s received) and
+ * employee.upstream.rejected, tagged by reason.
+ */
+@Component
+public class UpstreamConcurrencyLimiter {
+
+    public static final Logger logger = LoggerFactory.getLogger(UpstreamConcurrencyLimiter.class);
+
+    private static final double THROTTLED_BACKOFF = 0.5;
+    private static final double SLOW_BACKOFF = 0.9;
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(10);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private final UpstreamLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter throttled;
+
+    private double limit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private boolean paused;
+    private long lastBackoffNanos = System.nanoTime();
+
+    public UpstreamConcurrencyLimiter(UpstreamLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.limit = Math.max(properties.getMin(), Math.min(properties.getMax(), properties.getInitial()));
+        Gauge.builder("employee.upstream.limit", this, UpstreamConcurrencyLimiter::getLimit)
+                .description("Adaptive limit of upstream calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("employee.upstream.inflight", this, UpstreamConcurrencyLimiter::getInFlight)
+                .description("Upstream calls in flight")
+                .register(meterRegistry);
+        throttled = Counter.builder("employee.upstream.throttled")
+                .description("Upstream 429 responses")
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method is used to take a permit, queueing for up to max-wait.
+     * @return the permit, to be released exactly once with the outcome of the call
+     * @throws UpstreamLimitExceededException when no permit is free in time or upstream asked to back off for longer
+     */
+    public Permit acquire() {
+        long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+        lock.lock();
+        try {
+            while (true) {
+                Permit permit = take(deadline);
+                if (permit != null) {
+                    return permit;
+                }
+                long now = System.nanoTime();
+                released.awaitNanos(paused ? pausedUntilNanos - now : deadline - now);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw rejected("interrupted");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method is used to take a permit without blocking a thread, for reactive callers. While none is free the
+     * caller checks again every few milliseconds, for up to max-wait.
+     * @return the permit, or an {@link UpstreamLimitExceededException} error as {@link #acquire()} throws
+     */
+    public Mono<Permit> acquireAsync() {
+        return Mono.defer(() -> {
+            long deadline = System.nanoTime() + properties.getMaxWait().toNanos();
+            return Mono.defer(() -> poll(deadline))
+                    .repeatWhenEmpty(polls -> polls.delayElements(POLL_INTERVAL));
+        });
+    }
+
+    private Mono<Permit> poll(long deadline) {
+        lock.lock();
+        try {
+            return Mono.justOrEmpty(take(deadline));
+        } catch (UpstreamLimitExceededException ex) {
+            return Mono.error(ex);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method is used to take a free permit, with the lock held.
+     * @param deadline
+     * @return the permit, or null when the caller should wait for one
+     * @throws UpstreamLimitExceededException when waiting would outlast the deadline
+     */
+    private Permit take(long deadline) {
+        long now = System.nanoTime();
+        if (paused && now - pausedUntilNanos >= 0) {
+            paused = false;
+        }
+        if (!paused && inFlight < (int) limit) {
+            inFlight++;
+            return new Permit();
+        }
+        if (paused && pausedUntilNanos - deadline > 0) {
+            throw rejected("retry_after");
+        }
+        if (deadline - now <= 0) {
+            throw rejected("queue_timeout");
+        }
+        return null;
+    }
+
+    public double getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long startedNanos, boolean sampleLatency, Throwable error) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            int used = inFlight--;
+            boolean startedSinceBackoff = startedNanos - lastBackoffNanos > 0;
+            Optional<HttpHeaders> throttledHeaders = throttledHeaders(error);
+            if (throttledHeaders.isPresent()) {
+                throttled.increment();
+                if (startedSinceBackoff) {
+                    backOff(THROTTLED_BACKOFF, now);
+                }
+                Duration pause = retryAfter(throttledHeaders.get());
+                long pauseUntil = now + pause.toNanos();
+                if (!paused || pauseUntil - pausedUntilNanos > 0) {
+                    pausedUntilNanos = pauseUntil;
+                }
+                paused = true;
+                logger.warn("Upstream throttled, limit lowered to {} and calls paused for {}", (int) limit, pause);
+            } else if (error == null && sampleLatency) {
+                if (now - startedNanos > properties.getLatencyThreshold().toNanos()) {
+                    if (startedSinceBackoff) {
+                        backOff(SLOW_BACKOFF, now);
+                    }
+                } else if (used * 2 >= limit) {
+                    limit = Math.min(properties.getMax(), limit + 1 / limit);
+                }
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void backOff(double ratio, long now) {
+        limit = Math.max(properties.getMin(), limit * ratio);
+        lastBackoffNanos = now;
+    }
+
+    /**
+     * This method is used to get how long upstream asked to be left alone, from the delay-seconds or HTTP-date form
+     * of Retry-After, capped at max-retry-after.
+     * @param headers
+     * @return
+     */
+    Duration retryAfter(HttpHeaders headers) {
+        String value = headers == null ? null : headers.getFirst(HttpHeaders.RETRY_AFTER);
+        Duration retryAfter = properties.getDefaultRetryAfter();
+        if (value != null) {
+            try {
+                retryAfter = Duration.ofSeconds(Long.parseLong(value.trim()));
+            } catch (NumberFormatException notSeconds) {
+                try {
+                    retryAfter = Duration.between(ZonedDateTime.now(),
+                            ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                } catch (DateTimeParseException notDate) {
+                    logger.debug("Ignoring unreadable Retry-After {}", value);
+                }
+            }
+        }
+        if (retryAfter.isNegative()) {
+            return Duration.ZERO;
+        }
+        return retryAfter.compareTo(properties.getMaxRetryAfter()) > 0 ? properties.getMaxRetryAfter() : retryAfter;
+    }
+
+    private static Optional<HttpHeaders> throttledHeaders(Throwable error) {
+        if (error instanceof HttpStatusCodeException
+                && ((HttpStatusCodeException) error).getRawStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return Optional.of(Optional.ofNullable(((HttpStatusCodeException) error).getResponseHeaders())
+                    .orElseGet(HttpHeaders::new));
+        }
+        if (error instanceof WebClientResponseException
+                && ((WebClientResponseException) error).getRawStatusCode() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return Optional.of(((WebClientResponseException) error).getHeaders());
+        }
+        return Optional.empty();
+    }
+
+    private UpstreamLimitExceededException rejected(String reason) {
+        rejectedCounter(reason).increment();
+        return new UpstreamLimitExceededException("Upstream concurrency limit reached (" + reason + ")");
+    }
+
+    private Counter rejectedCounter(String reason) {
+        return Counter.builder("employee.upstream.rejected")
+                .description("Upstream calls not made because of the adaptive limit")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    /**
+     * This class is one upstream call in flight. Only its first release counts.
+     */
+    public class Permit {
+
+        private final long startedNanos = System.nanoTime();
+
+        private boolean done;
+
+        /**
+         * This method is used to release the permit after a successful call.
+         * @param sampleLatency whether the call's duration says how loaded upstream is
+         */
+        public void succeeded(boolean sampleLatency) {
+            finish(sampleLatency, null);
+        }
+
+        /**
+         * This method is used to release the permit after a failed call, backing off when upstream answered 429.
+         * @param error
+         */
+        public void failed(Throwable error) {
+            finish(false, error);
+        }
+
+        /**
+         * This method is used to release the permit of a call that was abandoned, without adapting the limit.
+         */
+        public void cancelled() {
+            finish(false, null);
+        }
+
+        private void finish(boolean sampleLatency, Throwable error) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            release(startedNanos, sampleLatency, error);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.rqchallenge.employees.utils;
+
+/**
+ * This exception is thrown instead of calling upstream when no permit of the adaptive upstream limit is free in time,
+ * or upstream asked to back off with Retry-After. It is neither retried nor counted by the circuit breaker, so the
+ * caller falls back to the last good data right away.
+ */
+public class UpstreamLimitExceededException extends RuntimeException {
+
+    public UpstreamLimitExceededException(String message) {
+        super(message);
+    }
+}
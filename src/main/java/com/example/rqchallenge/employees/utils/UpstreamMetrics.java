@@ -0,0 +1,137 @@
+package com.example.rqchallenge.employees.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.metrics.http.Outcome;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.Callable;
+
+/**
+ * This class records the latency of upstream calls and of reading their JSON bodies:
+ * <ul>
+ *     <li>employee.upstream.requests, per method, uri, outcome and exception, with the id in the uri replaced by {id}
+ *     so every employee shares one timer;</li>
+ *     <li>employee.json.read, per response type.</li>
+ * </ul>
+ * Both are published with percentile histograms, see management.metrics.distribution.* in application.properties.
+ */
+@Component
+public class UpstreamMetrics {
+
+    public static final String UPSTREAM_REQUESTS = "employee.upstream.requests";
+
+    public static final String JSON_READ = "employee.json.read";
+
+    private static final String NONE = "None";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UpstreamUrls upstreamUrls;
+
+    public Timer.Sample start() {
+        return Timer.start(meterRegistry);
+    }
+
+    /**
+     * This method is used to record an upstream call started with {@link #start()}.
+     * @param sample
+     * @param method
+     * @param url
+     * @param error the error the call ended with, null when it succeeded
+     */
+    public void stop(Timer.Sample sample, String method, String url, Throwable error) {
+        sample.stop(Timer.builder(UPSTREAM_REQUESTS)
+                .description("Upstream employee API calls")
+                .tag("method", method)
+                .tag("uri", uri(url))
+                .tag("outcome", outcome(error).name())
+                .tag("exception", error == null ? NONE : error.getClass().getSimpleName())
+                .register(meterRegistry));
+    }
+
+    /**
+     * This method is used to time a reactive upstream call from subscription until it completes or fails.
+     * @param method
+     * @param url
+     * @param call
+     * @return
+     */
+    public <T> Mono<T> timed(String method, String url, Mono<T> call) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = start();
+            return call.doOnSuccess(result -> stop(sample, method, url, null))
+                    .doOnError(ex -> stop(sample, method, url, ex));
+        });
+    }
+
+    /**
+     * This method is used to time the parsing of a response body that is already in memory.
+     * @param type
+     * @param parse
+     * @return
+     * @throws Exception
+     */
+    public <T> T read(Class<?> type, Callable<T> parse) throws Exception {
+        return readTimer(type).recordCallable(parse);
+    }
+
+    /**
+     * This method is used to time a reader of a streamed response body. The body is parsed as it arrives, so the
+     * time includes waiting for it.
+     * @param type
+     * @param reader
+     * @return
+     */
+    public <T> ResponseBodyReader<T> timed(Class<?> type, ResponseBodyReader<T> reader) {
+        Timer timer = readTimer(type);
+        return body -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                return reader.read(body);
+            } finally {
+                sample.stop(timer);
+            }
+        };
+    }
+
+    private Timer readTimer(Class<?> type) {
+        return Timer.builder(JSON_READ)
+                .description("Deserialization of upstream employee API responses")
+                .tag("type", type.getSimpleName())
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method is used to get the route of an upstream url, such as /employees/{id}.
+     * @param url
+     * @return
+     */
+    String uri(String url) {
+        if (!url.startsWith(upstreamUrls.getBaseUrl())) {
+            return Outcome.UNKNOWN.name();
+        }
+        String path = url.substring(upstreamUrls.getBaseUrl().length());
+        int idAt = path.indexOf('/', 1);
+        return idAt < 0 ? path : path.substring(0, idAt) + "/{id}";
+    }
+
+    static Outcome outcome(Throwable error) {
+        if (error == null) {
+            return Outcome.SUCCESS;
+        }
+        if (error instanceof RestClientResponseException) {
+            return Outcome.forStatus(((RestClientResponseException) error).getRawStatusCode());
+        }
+        if (error instanceof WebClientResponseException) {
+            return Outcome.forStatus(((WebClientResponseException) error).getRawStatusCode());
+        }
+        return Outcome.UNKNOWN;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.rqchallenge.employees.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class builds the upstream employee API urls from employee.upstream.base-url, so the service can be pointed at
+ * a local stand-in for load tests. The {@link AppConstants} urls are the defaults.
+ */
+@Component
+public class UpstreamUrls {
+
+    private final String baseUrl;
+
+    public UpstreamUrls(@Value("${employee.upstream.base-url:" + AppConstants.BASE_URL + "}") String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String allEmployees() {
+        return baseUrl + AppConstants.EMPLOYEES_PATH;
+    }
+
+    public String employee(String id) {
+        return allEmployees() + "/" + id;
+    }
+
+    public String createEmployee() {
+        return baseUrl + AppConstants.CREATE_PATH;
+    }
+
+    public String deleteEmployee(String id) {
+        return baseUrl + AppConstants.DELETE_PATH + "/" + id;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.rest.EmployeeController;
+import com.example.rqchallenge.perf.FakeUpstreamServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the service over real HTTP against a {@link FakeUpstreamServer} set through employee.upstream.base-url.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class FakeUpstreamTests {
+
+    static FakeUpstreamServer upstream;
+
+    @Autowired
+    EmployeeController employeeController;
+
+    @DynamicPropertySource
+    static void upstreamBaseUrl(DynamicPropertyRegistry registry) throws IOException {
+        upstream = FakeUpstreamServer.start(new FakeUpstreamServer.Settings().rosterSize(50).latency(0, 0));
+        registry.add("employee.upstream.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void testServiceTalksToTheConfiguredUpstream() throws IOException {
+        assertEquals("Employee 7", employeeController.getEmployeeById("7").getBody().getName());
+        assertEquals(50, employeeController.getAllEmployees(null, null, null).getBody().size());
+        assertEquals(10, employeeController.getTopTenHighestEarningEmployeeNames().getBody().size());
+
+        Employee created = employeeController.createEmployee(Map.of("name", "Airi Satou", "salary", 900000, "age", 33)).getBody();
+        assertEquals(51, created.getId());
+        assertEquals(900000, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals("Airi Satou", employeeController.deleteEmployeeById("51").getBody());
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeeById("51").getStatusCode());
+    }
+
+    @Test
+    void testRateLimitedUpstreamAnswers429WithRetryAfter() throws Exception {
+        try (FakeUpstreamServer limited = FakeUpstreamServer.start(new FakeUpstreamServer.Settings()
+                .rosterSize(1).latency(0, 0).rateLimitPerSecond(1))) {
+            HttpClient client = HttpClient.newHttpClient();
+            List<HttpResponse<Void>> responses = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                responses.add(client.send(HttpRequest.newBuilder(URI.create(limited.baseUrl() + "/employees")).build(),
+                        HttpResponse.BodyHandlers.discarding()));
+            }
+            HttpResponse<Void> rejected = responses.stream().filter(response -> response.statusCode() == 429)
+                    .findFirst().orElseThrow();
+            assertEquals("1", rejected.headers().firstValue("Retry-After").orElseThrow());
+        }
+    }
+}
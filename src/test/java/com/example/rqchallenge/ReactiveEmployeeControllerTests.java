@@ -0,0 +1,173 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.entities.BatchItemResult;
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.rest.ReactiveEmployeeController;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("test")
+class ReactiveEmployeeControllerTests {
+
+    static final Map<String, String> upstreamResponses = new ConcurrentHashMap<>();
+    static final AtomicInteger upstreamCalls = new AtomicInteger();
+
+    @TestConfiguration
+    static class StubUpstreamConfig {
+
+        @Bean
+        WebClientCustomizer stubUpstreamCustomizer() {
+            return builder -> builder.exchangeFunction(request -> {
+                upstreamCalls.incrementAndGet();
+                String body = upstreamResponses.get(request.method() + " " + request.url());
+                if (body == null) {
+                    return Mono.just(ClientResponse.create(HttpStatus.INTERNAL_SERVER_ERROR).build());
+                }
+                return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body(body).build());
+            });
+        }
+    }
+
+    @Autowired
+    ReactiveEmployeeController employeeController;
+
+    @Autowired
+    EmployeeSnapshotStore employeeSnapshotStore;
+
+    @Autowired
+    ApplicationContext applicationContext;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        upstreamResponses.clear();
+        upstreamCalls.set(0);
+        employeeSnapshotStore.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void testGetAllEmployeesAndAggregatesSuccess() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL, response);
+
+        ResponseEntity<List<Employee>> employees = employeeController.getAllEmployees(null, null, null).block();
+        assertEquals(HttpStatus.OK, employees.getStatusCode());
+        assertEquals(2, employees.getBody().size());
+
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().block().getBody());
+        assertEquals(List.of("Tiger Nixon", "Haley Kennedy"),
+                employeeController.getTopTenHighestEarningEmployeeNames().block().getBody());
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeesByNameSearch("Pramod", false, null, null, null).block().getStatusCode());
+        assertEquals(1, upstreamCalls.get());
+    }
+
+    @Test
+    void testGetEmployeeByIdMockData() {
+        ResponseEntity<Employee> employee = employeeController.getEmployeeById("3").block();
+        assertEquals(HttpStatus.OK, employee.getStatusCode());
+        assertEquals(AppConstants.MOCK_DATA, employee.getBody().getName());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void testDeleteEmployeeByIdSuccess() {
+        String response = "{\"status\":\"success\",\"data\":{\"id\":965,\"employee_name\":\"Pramod Giri\",\"employee_salary\":5000,\"employee_age\":87,\"profile_image\":\"\"}}";
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL + "/965", response);
+        upstreamResponses.put("DELETE " + AppConstants.DELETE_EMPLOYEE_URL + "/965",
+                "{\"status\": \"success\",\"message\": \"successfully! deleted Records\"}");
+
+        ResponseEntity<String> deleted = employeeController.deleteEmployeeById("965").block();
+        assertEquals(HttpStatus.OK, deleted.getStatusCode());
+        assertEquals("Pramod Giri", deleted.getBody());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testLookupAnswersFromTheEmployeeByIdCache() {
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL + "/965",
+                "{\"status\":\"success\",\"data\":{\"id\":965,\"employee_name\":\"Pramod Giri\",\"employee_salary\":5000,\"employee_age\":87,\"profile_image\":\"\"}}");
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL + "/7", "{\"status\":\"success\",\"data\":null}");
+
+        EmployeeLookupResponse first = employeeController.lookupEmployeesById(List.of("965", "7")).block().getBody();
+        assertEquals("Pramod Giri", first.getData().get(0).getName());
+        assertEquals(List.of("7"), first.getNotFound());
+        assertEquals(2, upstreamCalls.get());
+        assertEquals("Pramod Giri", cacheManager.getCache("employeeById").get("965", Employee.class).getName());
+
+        //both the hit and the miss are answered from the cache, as the servlet lookup answers them
+        EmployeeLookupResponse second = employeeController.lookupEmployeesById(List.of("7", "965")).block().getBody();
+        assertEquals(first.getData(), second.getData());
+        assertEquals(List.of("7"), second.getNotFound());
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void testDeleteEmployeesBatch() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL, response);
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL + "/99", "{\"status\":\"success\",\"data\": null }");
+        upstreamResponses.put("DELETE " + AppConstants.DELETE_EMPLOYEE_URL + "/1",
+                "{\"status\": \"success\",\"message\": \"successfully! deleted Records\"}");
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().block().getBody());
+
+        ResponseEntity<List<BatchItemResult>> results = employeeController.deleteEmployeesById(List.of("1", "99")).block();
+        assertEquals(HttpStatus.OK, results.getStatusCode());
+        assertEquals(List.of(200, 404), List.of(results.getBody().get(0).getStatus(), results.getBody().get(1).getStatus()));
+        assertEquals("Tiger Nixon", results.getBody().get(0).getName());
+        assertEquals(313500, employeeController.getHighestSalaryOfEmployees().block().getBody());
+        assertEquals(3, upstreamCalls.get());
+    }
+
+    @Test
+    void testKeysetPagesWithFieldProjection() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}]}";
+        upstreamResponses.put("GET " + AppConstants.BASE_EMPLOYEES_URL, response);
+        WebTestClient client = WebTestClient.bindToApplicationContext(applicationContext).build();
+
+        client.get().uri("/employee?limit=1&fields=id,name").exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.LINK, "<?fields=id,name&limit=1&after=1>; rel=\"next\"")
+                .expectBody().json("[{\"id\":1,\"name\":\"Tiger Nixon\"}]").jsonPath("$[0].salary").doesNotExist();
+        client.get().uri("/employee?limit=1&after=1&fields=name").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{\"name\":\"Haley Kennedy\"}]").jsonPath("$[0].id").doesNotExist();
+        client.get().uri("/employee?fields=ssn").exchange()
+                .expectStatus().isBadRequest();
+        //only the list and search routes project, elsewhere the parameter is ignored
+        client.get().uri("/employee/topEarners?n=1&fields=name").exchange()
+                .expectStatus().isOk()
+                .expectBody().json("[{\"id\":1,\"name\":\"Tiger Nixon\",\"salary\":320800}]");
+        assertEquals(1, upstreamCalls.get());
+    }
+}
@@ -1,47 +1,127 @@
 package com.example.rqchallenge;
 
+import com.example.rqchallenge.employees.entities.BatchItemResult;
 import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.EmployeeLookupResponse;
+import com.example.rqchallenge.employees.entities.SalaryStats;
 import com.example.rqchallenge.employees.rest.EmployeeController;
+import com.example.rqchallenge.employees.service.IEmployeeService;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotPublishedEvent;
+import com.example.rqchallenge.employees.store.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.store.NameQuery;
 import com.example.rqchallenge.employees.utils.AppConstants;
 import com.example.rqchallenge.employees.utils.HttpRestUtil;
+import com.example.rqchallenge.employees.utils.ResponseBodyReader;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.json.JSONObject;
-import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.MockedStatic;
-import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.AbstractList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 
 @SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@ActiveProfiles("test")
 class RqChallengeApplicationTests {
 
+    private static final String TIGER_NIXON = "{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}";
+
+    private static final String GARRETT_WINTERS = "{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"}";
+
+    private static final String CREATED_PRAMOD = "{\"status\":\"success\",\"data\":{\"employee_name\":\"pramod\",\"employee_salary\":\"500000\",\"employee_age\":\"35\",\"id\":3}}";
+
+    private static final Duration ASYNC_TIMEOUT = Duration.ofSeconds(5);
+
+    //runs once on the next snapshot event, before the caches are updated for it
+    static final AtomicReference<Runnable> beforeCacheRefresh = new AtomicReference<>();
+
+    @TestConfiguration
+    static class SnapshotEventHookConfig {
+
+        @Bean
+        BeforeCacheRefreshListener beforeCacheRefreshListener() {
+            return new BeforeCacheRefreshListener();
+        }
+    }
+
+    static class BeforeCacheRefreshListener {
+
+        @EventListener
+        @Order(Ordered.HIGHEST_PRECEDENCE)
+        public void onSnapshotPublished(EmployeeSnapshotPublishedEvent event) {
+            Runnable hook = beforeCacheRefresh.getAndSet(null);
+            if (hook != null) {
+                hook.run();
+            }
+        }
+    }
+
     @Autowired
     EmployeeController employeeController;
 
-    MockedStatic<HttpRestUtil> httpRestUtilMock;
+    @Autowired
+    EmployeeSnapshotStore employeeSnapshotStore;
+
+    @Autowired
+    IEmployeeService employeeService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    HttpRestUtil httpRestUtil;
 
     @BeforeEach
     void setUp() {
-        httpRestUtilMock = Mockito.mockStatic(HttpRestUtil.class);
-    }
-
-    @AfterEach
-    public void close() {
-        httpRestUtilMock.close();
+        beforeCacheRefresh.set(null);
+        employeeSnapshotStore.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
     }
 
     @Test
@@ -52,32 +132,29 @@ class RqChallengeApplicationTests {
         String response = "{\"status\": \"success\",\"data\": {\"employee_name\": \"pramod\",\"employee_salary\": \"5000\",\"employee_age\": \"35\",\"id\": 3}}";
         HttpHeaders httpHeaders = new HttpHeaders();
         httpHeaders.setContentType(MediaType.APPLICATION_JSON);
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL, httpHeaders,
+        when(httpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL, httpHeaders,
                         AppConstants.POST, employeeString))
                 .thenReturn(Optional.of(response));
 
         ResponseEntity<Employee> employee = employeeController.createEmployee(empMap);
         assertEquals(HttpStatus.CREATED, employee.getStatusCode());
         assertEquals(3, employee.getBody().getId());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
     }
 
     @Test
     public void testCreateEmployeeMockData() {
 
         Map<String, Object> employeeInput = Map.of("name", "pramod", "salary", "5000", "age", "35");
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL, null,
-                        AppConstants.POST, Optional.ofNullable(new JSONObject(employeeInput).toString())));
+        when(httpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL, null,
+                        AppConstants.POST, Optional.ofNullable(new JSONObject(employeeInput).toString())))
+                .thenReturn(Optional.empty());
 
         ResponseEntity<Employee> employee = employeeController.createEmployee(employeeInput);
         assertEquals(HttpStatus.CREATED, employee.getStatusCode());
         assertEquals(3, employee.getBody().getId());
         assertEquals("pramod" + AppConstants.MOCK_DATA, employee.getBody().getName());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        verifyUpstreamCalls(3);
     }
 
     @Test
@@ -86,20 +163,17 @@ class RqChallengeApplicationTests {
         String deleteAPIRes = "{\"status\": \"success\",\"message\": \"successfully! deleted Records\"}";
         String id = "965";
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id, null,
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id, null,
                         AppConstants.GET, Optional.empty()))
                 .thenReturn(Optional.of(response));
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL +"/"+ id, null,
+        when(httpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL +"/"+ id, null,
                         AppConstants.DELETE, Optional.empty()))
                 .thenReturn(Optional.of(deleteAPIRes));
 
         ResponseEntity<String> employee = employeeController.deleteEmployeeById(id);
         assertEquals(HttpStatus.OK, employee.getStatusCode());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(2));
+        verifyUpstreamCalls(2);
     }
 
     @Test
@@ -108,20 +182,17 @@ class RqChallengeApplicationTests {
         String deletionResp = "{\"status\": \"success\",\"message\": \"successfully! deleted Records\"}";
         int id = 3;
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id, null,
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id, null,
                         AppConstants.GET, Optional.empty()))
                 .thenReturn(Optional.of(defaultResponse));
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL +"/"+ id, null,
+        when(httpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL +"/"+ id, null,
                         AppConstants.DELETE, Optional.empty()))
                 .thenReturn(Optional.of(deletionResp));
 
         ResponseEntity<String> employee = employeeController.deleteEmployeeById(id + "");
         assertEquals(HttpStatus.NOT_FOUND, employee.getStatusCode());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
 
     }
 
@@ -129,8 +200,7 @@ class RqChallengeApplicationTests {
     public void testGetEmployeeByIdSuccess() {
         String response = "{\"status\":\"success\",\"data\":{\"id\":3,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}}";
         String id = "3";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
                         null, AppConstants.GET, Optional.empty()))
                 .thenReturn(Optional.of(response));
         ResponseEntity<Employee> employee = employeeController.getEmployeeById(id);
@@ -141,13 +211,12 @@ class RqChallengeApplicationTests {
     @Test()
     public void testGetEmployeeByIdMockData(){
         String id = "3";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
-                        null, AppConstants.GET, Optional.empty()));
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
+                        null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.empty());
 
         ResponseEntity<Employee> employee = employeeController.getEmployeeById(id + "");
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        verifyUpstreamCalls(3);
         assertEquals(HttpStatus.OK, employee.getStatusCode());
         assertEquals(id, String.valueOf(employee.getBody().getId()));
         assertEquals(AppConstants.MOCK_DATA, employee.getBody().getName());
@@ -157,43 +226,32 @@ class RqChallengeApplicationTests {
     public void testGetHighestSalaryOfEmployeesSuccess() {
 
         String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Bradley Greer\",\"employee_salary\":132000,\"employee_age\":41,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}"; //"{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Cedric Kelly\",\"employee_salary\":433060,\"employee_age\":22,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null, AppConstants.GET, Optional.empty()))
-                .thenReturn(Optional.of(response));
+        stubAllEmployees(Optional.of(response));
 
         ResponseEntity<Integer> salary = employeeController.getHighestSalaryOfEmployees();
         assertEquals(320800, salary.getBody());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
     }
 
     @Test
     public void testGetHighestSalaryOfEmployeesMockData() {
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null, AppConstants.GET, Optional.empty()));
+        stubAllEmployees(Optional.empty());
 
         ResponseEntity<Integer> salary = employeeController.getHighestSalaryOfEmployees();
         assertEquals(Integer.MAX_VALUE, salary.getBody());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        verifyUpstreamCalls(3);
 
     }
 
     @Test
     public void testGetTopTenHighestEarningEmployeeNamesSuccess() {
         String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Cedric Kelly\",\"employee_salary\":433060,\"employee_age\":22,\"profile_image\":\"\"},{\"id\":5,\"employee_name\":\"Airi Satou\",\"employee_salary\":162700,\"employee_age\":33,\"profile_image\":\"\"},{\"id\":6,\"employee_name\":\"Brielle Williamson\",\"employee_salary\":372000,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":7,\"employee_name\":\"Herrod Chandler\",\"employee_salary\":137500,\"employee_age\":59,\"profile_image\":\"\"},{\"id\":8,\"employee_name\":\"Rhona Davidson\",\"employee_salary\":327900,\"employee_age\":55,\"profile_image\":\"\"},{\"id\":9,\"employee_name\":\"Colleen Hurst\",\"employee_salary\":205500,\"employee_age\":39,\"profile_image\":\"\"},{\"id\":10,\"employee_name\":\"Sonya Frost\",\"employee_salary\":103600,\"employee_age\":23,\"profile_image\":\"\"},{\"id\":11,\"employee_name\":\"Jena Gaines\",\"employee_salary\":90560,\"employee_age\":30,\"profile_image\":\"\"},{\"id\":12,\"employee_name\":\"Quinn Flynn\",\"employee_salary\":342000,\"employee_age\":22,\"profile_image\":\"\"},{\"id\":13,\"employee_name\":\"Charde Marshall\",\"employee_salary\":470600,\"employee_age\":36,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":15,\"employee_name\":\"Tatyana Fitzpatrick\",\"employee_salary\":385750,\"employee_age\":19,\"profile_image\":\"\"},{\"id\":16,\"employee_name\":\"Michael Silva\",\"employee_salary\":198500,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":17,\"employee_name\":\"Paul Byrd\",\"employee_salary\":725000,\"employee_age\":64,\"profile_image\":\"\"},{\"id\":18,\"employee_name\":\"Gloria Little\",\"employee_salary\":237500,\"employee_age\":59,\"profile_image\":\"\"},{\"id\":19,\"employee_name\":\"Bradley Greer\",\"employee_salary\":132000,\"employee_age\":41,\"profile_image\":\"\"},{\"id\":20,\"employee_name\":\"Dai Rios\",\"employee_salary\":217500,\"employee_age\":35,\"profile_image\":\"\"},{\"id\":21,\"employee_name\":\"Jenette Caldwell\",\"employee_salary\":345000,\"employee_age\":30,\"profile_image\":\"\"},{\"id\":22,\"employee_name\":\"Yuri Berry\",\"employee_salary\":675000,\"employee_age\":40,\"profile_image\":\"\"},{\"id\":23,\"employee_name\":\"Caesar Vance\",\"employee_salary\":106450,\"employee_age\":21,\"profile_image\":\"\"},{\"id\":24,\"employee_name\":\"Doris Wilder\",\"employee_salary\":85600,\"employee_age\":23,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL, null,
-                        AppConstants.GET, Optional.empty()))
-                .thenReturn(Optional.of(response));
+        stubAllEmployees(Optional.of(response));
 
         ResponseEntity<List<String>> employees = employeeController.getTopTenHighestEarningEmployeeNames();
         assertEquals(10, employees.getBody().size());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
 
 
     }
@@ -201,47 +259,33 @@ class RqChallengeApplicationTests {
     @Test
     public void testGetTopTenHighestEarningEmployeeNamesMockData() {
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL, null,
-                        AppConstants.GET, Optional.empty()));
+        stubAllEmployees(Optional.empty());
 
         ResponseEntity<List<String>> employees = employeeController.getTopTenHighestEarningEmployeeNames();
         assertEquals(1, employees.getBody().size());
         assertEquals(AppConstants.MOCK_DATA, employees.getBody().get(0));
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        verifyUpstreamCalls(3);
     }
 
     @Test
     void testGetAllEmployeesSuccess() throws IOException {
 
         String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Bradley Greer\",\"employee_salary\":132000,\"employee_age\":41,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null,
-                        AppConstants.GET,
-                        Optional.empty()))
-                .thenReturn(Optional.of(response));
+        stubAllEmployees(Optional.of(response));
 
-        ResponseEntity<List<Employee>> employees = employeeController.getAllEmployees();
+        ResponseEntity<List<Employee>> employees = employeeController.getAllEmployees(null, null, null);
         assertNotEquals(null, employees.getBody());
         assertEquals(4, employees.getBody().size());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
 
     }
 
     @Test
     void testGetAllEmployeesWithMockData() throws IOException {
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null,
-                        AppConstants.GET,
-                        Optional.empty()));
-
-        ResponseEntity<List<Employee>> employees = employeeController.getAllEmployees();
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        stubAllEmployees(Optional.empty());
+
+        ResponseEntity<List<Employee>> employees = employeeController.getAllEmployees(null, null, null);
+        verifyUpstreamCalls(3);
         assertEquals(3, employees.getBody().size());
         assertEquals(277000, employees.getBody().get(0).getSalary());
     }
@@ -250,16 +294,10 @@ class RqChallengeApplicationTests {
     public void testGetEmployeesByNameSearchSuccess() {
         String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Bradley Greer\",\"employee_salary\":132000,\"employee_age\":41,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
         String searchString = "Tiger";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null,
-                        AppConstants.GET,
-                        Optional.empty()))
-                .thenReturn(Optional.of(response));
-        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString);
+        stubAllEmployees(Optional.of(response));
+        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString, false, null, null, null);
         assertEquals(1, employees.getBody().size());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
     }
 
     @Test
@@ -267,40 +305,479 @@ class RqChallengeApplicationTests {
         String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},{\"id\":4,\"employee_name\":\"Bradley Greer\",\"employee_salary\":132000,\"employee_age\":41,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
         String searchString = "Pramod";
 
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null,
-                        AppConstants.GET,
-                        Optional.empty()))
-                .thenReturn(Optional.of(response));
+        stubAllEmployees(Optional.of(response));
 
-        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString);
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString, false, null, null, null);
+        verifyUpstreamCalls(1);
         assertEquals(HttpStatus.NOT_FOUND, employees.getStatusCode());
         assertNull(employees.getBody());
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(1));
+        verifyUpstreamCalls(1);
     }
 
     @Test
     public void testGetEmployeesByNameSearchMockData() {
         String searchString = "Pramod";
-        httpRestUtilMock.when(
-                () -> HttpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL,
-                        null,
-                        AppConstants.GET,
-                        Optional.empty()));
-        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString);
-        httpRestUtilMock.verify(() -> HttpRestUtil.callRestAPI(any(), any(), any(), any()),
-                times(3));
+        stubAllEmployees(Optional.empty());
+        ResponseEntity<List<Employee>> employees = employeeController.getEmployeesByNameSearch(searchString, false, null, null, null);
+        verifyUpstreamCalls(3);
         assertEquals(HttpStatus.OK, employees.getStatusCode());
         assertEquals(1, employees.getBody().size());
         assertEquals(searchString + AppConstants.MOCK_DATA, employees.getBody().get(0).getName());
     }
 
+    @Test
+    public void testAggregatesAreServedFromSnapshot() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(2, employeeController.getTopTenHighestEarningEmployeeNames().getBody().size());
+        assertEquals(1, employeeController.getEmployeesByNameSearch("Haley", false, null, null, null).getBody().size());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    public void testGetEmployeesByNameSearchIgnoreCaseWithLimit() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"},{\"id\":20,\"employee_name\":\"Dai Rios\",\"employee_salary\":217500,\"employee_age\":35,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeesByNameSearch("NIX", false, null, null, null).getStatusCode());
+        assertEquals(1, employeeController.getEmployeesByNameSearch("NIX", true, null, null, null).getBody().get(0).getId());
+        assertEquals(2, employeeController.getEmployeesByNameSearch("i", true, null, null, null).getBody().size());
+        assertEquals(1, employeeController.getEmployeesByNameSearch("i", true, 1, null, null).getBody().size());
+        assertEquals(HttpStatus.BAD_REQUEST, employeeController.getEmployeesByNameSearch("i", true, 0, null, null).getStatusCode());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    public void testGetTopEarnersFollowsCreate() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+        String created = "{\"status\": \"success\",\"data\": {\"employee_name\": \"pramod\",\"employee_salary\": \"500000\",\"employee_age\": \"35\",\"id\": 3}}";
+        when(httpRestUtil.callRestAPI(eq(AppConstants.CREATE_EMPLOYEE_URL), any(), eq(AppConstants.POST), any()))
+                .thenReturn(Optional.of(created));
+
+        assertEquals(HttpStatus.BAD_REQUEST, employeeController.getTopEarners(0).getStatusCode());
+        assertEquals(1, employeeController.getTopEarners(1).getBody().get(0).getId());
+        employeeController.createEmployee(Map.of("name", "pramod", "salary", "500000", "age", "35"));
+
+        ResponseEntity<List<Employee>> topEarners = employeeController.getTopEarners(2);
+        assertEquals(HttpStatus.OK, topEarners.getStatusCode());
+        assertEquals(List.of(3, 1), List.of(topEarners.getBody().get(0).getId(), topEarners.getBody().get(1).getId()));
+        assertEquals(500000, employeeController.getHighestSalaryOfEmployees().getBody());
+        verifyUpstreamCalls(2);
+    }
+
+    @Test
+    public void testCreateEmployeesBatchReportsEachItem() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+        String created = "{\"status\": \"success\",\"data\": {\"employee_name\": \"pramod\",\"employee_salary\": \"500000\",\"employee_age\": \"35\",\"id\": 3}}";
+        when(httpRestUtil.callRestAPI(eq(AppConstants.CREATE_EMPLOYEE_URL), any(), eq(AppConstants.POST),
+                argThat(body -> body != null && body.get().contains("pramod"))))
+                .thenReturn(Optional.of(created));
+        when(httpRestUtil.callRestAPI(eq(AppConstants.CREATE_EMPLOYEE_URL), any(), eq(AppConstants.POST),
+                argThat(body -> body != null && body.get().contains("broken"))))
+                .thenReturn(Optional.empty());
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+
+        assertEquals(HttpStatus.BAD_REQUEST, employeeController.createEmployees(List.of()).getStatusCode());
+        ResponseEntity<List<BatchItemResult>> results = employeeController.createEmployees(
+                List.of(Map.of("name", "pramod", "salary", "500000"), Map.of("name", "broken")));
+        assertEquals(HttpStatus.OK, results.getStatusCode());
+        assertEquals(List.of(201, 500), List.of(results.getBody().get(0).getStatus(), results.getBody().get(1).getStatus()));
+        assertEquals(3, results.getBody().get(0).getEmployee().getId());
+        assertEquals(1, results.getBody().get(1).getIndex());
+        //the failed item is retried on its own, the batch applies the created one to the snapshot and evicts once
+        assertEquals(500000, employeeController.getHighestSalaryOfEmployees().getBody());
+        verifyUpstreamCalls(5);
+    }
+
+    @Test
+    public void testDeleteEmployeesBatchResolvesNamesFromSnapshot() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+        when(httpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL + "/1", null, AppConstants.DELETE, Optional.empty()))
+                .thenReturn(Optional.of("{\"status\": \"success\",\"message\": \"successfully! deleted Records\"}"));
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL + "/99", null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.of("{\"status\":\"success\",\"data\": null }"));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+
+        ResponseEntity<List<BatchItemResult>> results = employeeController.deleteEmployeesById(List.of("1", "99"));
+        assertEquals(HttpStatus.OK, results.getStatusCode());
+        assertEquals(200, results.getBody().get(0).getStatus());
+        assertEquals("Tiger Nixon", results.getBody().get(0).getName());
+        assertEquals(404, results.getBody().get(1).getStatus());
+        assertEquals(313500, employeeController.getHighestSalaryOfEmployees().getBody());
+        //id 1 is resolved from the snapshot, so only the unknown id needs a GET before its delete is skipped
+        verifyUpstreamCalls(3);
+    }
+
+    @Test
+    public void testLookupEmployeesByIdFetchesOnlyMisses() {
+        String response = "{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":14,\"employee_name\":\"Haley Kennedy\",\"employee_salary\":313500,\"employee_age\":43,\"profile_image\":\"\"}],\"message\":\"Successfully! All records has been fetched.\"}";
+        stubAllEmployees(Optional.of(response));
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL + "/3", null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.of("{\"status\":\"success\",\"data\":{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"}}"));
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL + "/99", null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.of("{\"status\":\"success\",\"data\": null }"));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals("Ashton Cox", employeeController.getEmployeeById("3").getBody().getName());
+
+        assertEquals(HttpStatus.BAD_REQUEST, employeeController.lookupEmployeesById(List.of()).getStatusCode());
+        ResponseEntity<EmployeeLookupResponse> lookup = employeeController.lookupEmployeesById(List.of("1", "3", "1", "99", "14"));
+        assertEquals(HttpStatus.OK, lookup.getStatusCode());
+        assertEquals(List.of(1, 3, 14), lookup.getBody().getData().stream().map(Employee::getId).collect(Collectors.toList()));
+        assertEquals(List.of("99"), lookup.getBody().getNotFound());
+        assertTrue(lookup.getBody().getFailed().isEmpty());
+        //1 and 14 come from the snapshot, 3 from the cache, only 99 is fetched and its miss is cached
+        assertEquals(List.of("99"), employeeController.lookupEmployeesById(List.of("99")).getBody().getNotFound());
+        verifyUpstreamCalls(3);
+    }
+
+    @Test
+    public void testGetEmployeeByIdIsCached() {
+        String response = "{\"status\":\"success\",\"data\":{\"id\":3,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}}";
+        String id = "3";
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
+                        null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.of(response));
+        double hitsBefore = meterRegistry.get("cache.gets").tag("cache", "employeeById").tag("result", "hit")
+                .functionCounter().count();
+
+        assertEquals("Tiger Nixon", employeeController.getEmployeeById(id).getBody().getName());
+        assertEquals("Tiger Nixon", employeeController.getEmployeeById(id).getBody().getName());
+        verifyUpstreamCalls(1);
+        assertEquals(hitsBefore + 1, meterRegistry.get("cache.gets").tag("cache", "employeeById").tag("result", "hit")
+                .functionCounter().count());
+    }
+
+    @Test
+    public void testGetEmployeeByIdNotFoundIsNegativelyCached() {
+        String defaultResponse = "{\"status\":\"success\",\"data\": null }";
+        String id = "404";
+        when(httpRestUtil.callRestAPI(AppConstants.BASE_EMPLOYEES_URL +"/"+ id,
+                        null, AppConstants.GET, Optional.empty()))
+                .thenReturn(Optional.of(defaultResponse));
+
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeeById(id).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeeById(id).getStatusCode());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    public void testFallbackResultIsNotCached() {
+        stubAllEmployees(Optional.empty());
+
+        assertEquals(Integer.MAX_VALUE, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertNull(cacheManager.getCache("highestSalaryEmployee").get(SimpleKey.EMPTY));
+        assertEquals(Integer.MAX_VALUE, employeeController.getHighestSalaryOfEmployees().getBody());
+        verifyUpstreamCalls(6);
+    }
+
+    @Test
+    void testStreamAllEmployeesWritesOneLinePerEmployee() throws Exception {
+        stubAllEmployees(Optional.of("{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"}]}"));
+
+        MvcResult result = mockMvc.perform(get("/employee").accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(body.endsWith("\n"));
+        assertEquals(1, new JSONObject(lines[0]).getInt("id"));
+        assertEquals("Garrett Winters", new JSONObject(lines[1]).getString("name"));
+
+        mockMvc.perform(get("/employee").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+        mockMvc.perform(get("/employee"))
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void testKeysetPagesWithFieldProjection() throws Exception {
+        stubAllEmployees(Optional.of("{\"status\":\"success\",\"data\":[{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"cox.png\"},{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"}]}"));
+
+        mockMvc.perform(get("/employee").param("limit", "2").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LINK, "<?fields=id,name&limit=2&after=2>; rel=\"next\""))
+                .andExpect(content().json("[{\"id\":1,\"name\":\"Tiger Nixon\"},{\"id\":2,\"name\":\"Garrett Winters\"}]", true));
+        mockMvc.perform(get("/employee").param("limit", "2").param("after", "2").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LINK))
+                .andExpect(content().json("[{\"id\":3,\"name\":\"Ashton Cox\"}]", true));
+        mockMvc.perform(get("/employee/search/e").param("limit", "1").param("after", "1"))
+                .andExpect(header().string(HttpHeaders.LINK, "<?ignoreCase=false&limit=1&after=2>; rel=\"next\""))
+                .andExpect(content().json("[{\"id\":2,\"salary\":170750,\"profile_image\":\"\"}]"));
+        mockMvc.perform(get("/employee").param("fields", "id,password"))
+                .andExpect(status().isBadRequest());
+        //only the list and search routes project, elsewhere the parameter is ignored
+        mockMvc.perform(get("/employee/topEarners").param("n", "1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(content().json("[{\"id\":1,\"name\":\"Tiger Nixon\",\"salary\":320800}]"));
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testCachedAggregatesFollowThePublishedSnapshot() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON)));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(List.of("Tiger Nixon"), employeeController.getTopTenHighestEarningEmployeeNames().getBody());
+
+        //as the background refresher would
+        employeeSnapshotStore.publish(List.of(new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(2, "Paul Byrd", 725000, "64", "")));
+
+        //both are reloaded in the background, the previous results are served until then
+        Cache highestSalary = cacheManager.getCache("highestSalaryEmployee");
+        Cache topTen = cacheManager.getCache("topTenHighestEarningEmployeeNames");
+        await().atMost(ASYNC_TIMEOUT).until(() -> Integer.valueOf(725000).equals(highestSalary.get(SimpleKey.EMPTY, Integer.class))
+                && topTen.get(SimpleKey.EMPTY, List.class).size() == 2);
+        assertEquals(725000, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(List.of("Paul Byrd", "Tiger Nixon"), employeeController.getTopTenHighestEarningEmployeeNames().getBody());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testRefreshOnlyUpdatesCachedResultsOfChangedEmployees() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON, GARRETT_WINTERS)));
+        List<Employee> tiger = employeeController.getEmployeesByNameSearch("Tiger", false, null, null, null).getBody();
+        assertEquals(170750, employeeController.getEmployeesByNameSearch("Garrett", false, null, null, null).getBody().get(0).getSalary());
+        Cache employeeById = cacheManager.getCache("employeeById");
+        employeeById.put("2", new Employee(2, "Garrett Winters", 170750, "63", ""));
+        employeeById.put("3", null);
+
+        //as the background refresher would: Garrett got a raise and Ashton joined
+        employeeSnapshotStore.publish(List.of(new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(2, "Garrett Winters", 190000, "63", ""),
+                new Employee(3, "Ashton Cox", 86000, "66", "")));
+
+        assertEquals(190000, employeeById.get("2", Employee.class).getSalary());
+        assertEquals("Ashton Cox", employeeById.get("3", Employee.class).getName());
+        Cache employeeByName = cacheManager.getCache("employeeByName");
+        NameQuery garrett = NameQuery.of("Garrett", false, NameQuery.UNLIMITED);
+        await().atMost(ASYNC_TIMEOUT)
+                .until(() -> ((Employee) employeeByName.get(garrett, List.class).get(0)).getSalary() == 190000);
+        assertEquals(190000, employeeController.getEmployeesByNameSearch("Garrett", false, null, null, null).getBody().get(0).getSalary());
+        //no changed employee matches, so the cached search was kept as it was
+        assertSame(tiger, employeeByName.get(NameQuery.of("Tiger", false, NameQuery.UNLIMITED), List.class));
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testRefreshKeepsTheHighestSalaryWhenItCannotChange() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON, GARRETT_WINTERS)));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(2, employeeController.getTopTenHighestEarningEmployeeNames().getBody().size());
+        Cache highestSalary = cacheManager.getCache("highestSalaryEmployee");
+        Object cachedHighest = highestSalary.get(SimpleKey.EMPTY).get();
+
+        //as the background refresher would: Ashton joins below the highest salary, but among the top ten
+        employeeSnapshotStore.publish(List.of(new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(2, "Garrett Winters", 170750, "63", ""),
+                new Employee(3, "Ashton Cox", 86000, "66", "")));
+
+        Cache topTen = cacheManager.getCache("topTenHighestEarningEmployeeNames");
+        await().atMost(ASYNC_TIMEOUT).until(() -> topTen.get(SimpleKey.EMPTY, List.class).size() == 3);
+        assertSame(cachedHighest, highestSalary.get(SimpleKey.EMPTY).get());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testWritesAreReadBackUntilUpstreamReflectsThem() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON)));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        List<Employee> tiger = employeeController.getEmployeesByNameSearch("Tiger", false, null, null, null).getBody();
+        stubCreatePramod();
+        when(httpRestUtil.callRestAPI(AppConstants.DELETE_EMPLOYEE_URL + "/3", null, AppConstants.DELETE, Optional.empty()))
+                .thenReturn(Optional.of("{\"status\":\"success\",\"message\":\"successfully! deleted Records\"}"));
+
+        assertEquals(HttpStatus.CREATED, employeeController.createEmployee(Map.of("name", "pramod")).getStatusCode());
+        assertEquals(500000, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals("pramod", employeeController.getTopTenHighestEarningEmployeeNames().getBody().get(0));
+        assertEquals("pramod", employeeController.getEmployeeById("3").getBody().getName());
+        //the search does not match the new employee, so it was not invalidated
+        assertSame(tiger, cacheManager.getCache("employeeByName").get(NameQuery.of("Tiger", false, NameQuery.UNLIMITED), List.class));
+
+        //a refresh from an upstream that does not reflect the create yet keeps it
+        employeeSnapshotStore.publish(List.of(new Employee(1, "Tiger Nixon", 320800, "61", "")));
+        assertEquals(2, employeeController.getTopTenHighestEarningEmployeeNames().getBody().size());
+
+        assertEquals(HttpStatus.OK, employeeController.deleteEmployeeById("3").getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, employeeController.getEmployeeById("3").getStatusCode());
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        verifyUpstreamCalls(3);
+    }
+
+    @Test
+    void testAllEmployeesAreNotKeptWithTheSnapshotDisabled() throws IOException {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON, GARRETT_WINTERS)));
+        Object target = AopTestUtils.getUltimateTargetObject(employeeService);
+        ReflectionTestUtils.setField(target, "snapshotEnabled", false);
+        try {
+            assertEquals(List.of("Tiger Nixon", "Garrett Winters"), employeeController.getAllEmployees(null, null, null)
+                    .getBody().stream().map(Employee::getName).collect(Collectors.toList()));
+            assertTrue(employeeSnapshotStore.lastGood().isEmpty());
+        } finally {
+            ReflectionTestUtils.setField(target, "snapshotEnabled", true);
+        }
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testCreateDuringRefreshIsKeptInTheSnapshot() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON)));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        stubCreatePramod();
+        List<Employee> upstream = List.of(new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(2, "Garrett Winters", 170750, "63", ""));
+        //the create lands while the refresh builds its snapshot, as a request thread would meanwhile
+        List<Employee> refreshed = new AbstractList<>() {
+            boolean created;
+
+            @Override
+            public Employee get(int index) {
+                if (!created) {
+                    created = true;
+                    assertEquals(HttpStatus.CREATED, employeeController.createEmployee(Map.of("name", "pramod")).getStatusCode());
+                    assertEquals(500000, employeeController.getHighestSalaryOfEmployees().getBody());
+                }
+                return upstream.get(index);
+            }
+
+            @Override
+            public int size() {
+                return upstream.size();
+            }
+        };
+
+        employeeSnapshotStore.publish(refreshed);
+
+        assertEquals("pramod", employeeSnapshotStore.current().get().findById(3).get().getName());
+        assertEquals(3, employeeSnapshotStore.current().get().size());
+        //the top ten were not cached yet, so they are computed from the published snapshot
+        assertEquals(500000, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(List.of("pramod", "Tiger Nixon", "Garrett Winters"),
+                employeeController.getTopTenHighestEarningEmployeeNames().getBody());
+        verifyUpstreamCalls(2);
+    }
+
+    @Test
+    void testSalaryStatsFollowWritesWithoutAggregatingAgain() throws Exception {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON, GARRETT_WINTERS)));
+        mockMvc.perform(get("/employee/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count").value(2))
+                .andExpect(jsonPath("$.min").value(170750))
+                .andExpect(jsonPath("$.max").value(320800))
+                .andExpect(jsonPath("$.median").value(245775.0))
+                .andExpect(jsonPath("$.percentiles.p90").value(320800))
+                .andExpect(jsonPath("$.histogram[0].from").value(150000))
+                .andExpect(jsonPath("$.ageBands[4].ages").value("55-64"))
+                .andExpect(jsonPath("$.ageBands[4].count").value(2))
+                .andExpect(jsonPath("$.aggregate").doesNotExist());
+        stubCreatePramod();
+
+        assertEquals(HttpStatus.CREATED, employeeController.createEmployee(Map.of("name", "pramod")).getStatusCode());
+
+        //the cached statistics were patched with the create rather than evicted
+        SalaryStats cached = cacheManager.getCache("salaryStats").get(SimpleKey.EMPTY, SalaryStats.class);
+        assertEquals(3, cached.getCount());
+        assertEquals(500000, cached.getMax());
+        assertEquals(1, cached.getAgeBands().get(2).getCount());
+        assertSame(cached, employeeController.getSalaryStats().getBody());
+        verifyUpstreamCalls(2);
+    }
+
+    @Test
+    void testSalaryStatsReadBeforeTheEventAreNotPatchedTwice() {
+        stubAllEmployees(Optional.of(roster(TIGER_NIXON, GARRETT_WINTERS)));
+        assertEquals(320800, employeeController.getHighestSalaryOfEmployees().getBody());
+        AtomicReference<SalaryStats> readBeforeEvent = new AtomicReference<>();
+        beforeCacheRefresh.set(() -> readBeforeEvent.set(employeeController.getSalaryStats().getBody()));
+
+        //as the background refresher would: the statistics are read once the snapshot is current, before its event
+        employeeSnapshotStore.publish(List.of(new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(2, "Garrett Winters", 170750, "63", ""),
+                new Employee(3, "Paul Byrd", 725000, "64", "")));
+
+        assertEquals(3, readBeforeEvent.get().getCount());
+        SalaryStats cached = cacheManager.getCache("salaryStats").get(SimpleKey.EMPTY, SalaryStats.class);
+        assertSame(readBeforeEvent.get(), cached);
+        assertEquals(3, cached.getCount());
+        assertEquals(725000, cached.getMax());
+        assertEquals(3, cached.getAgeBands().get(4).getCount());
+        verifyUpstreamCalls(1);
+    }
+
+    @Test
+    void testHttpConnectionPoolMetricsAreRegistered() {
+        for (String state : List.of("leased", "pending", "available", "max")) {
+            assertNotNull(meterRegistry.find("employee.http.pool.connections").tag("state", state).gauge());
+        }
+        assertEquals(200, meterRegistry.get("employee.http.pool.connections").tag("state", "max").gauge().value());
+    }
+
+    @Test
+    void testRouteAndUpstreamTimingsAreScraped() throws Exception {
+        stubAllEmployees(Optional.of("{\"status\":\"success\",\"data\":[{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"}]}"));
+
+        mockMvc.perform(get("/employee/highestSalary"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("320800"));
+
+        String scrape = mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/employee/highestSalary\""));
+        assertTrue(scrape.contains("employee_json_read_seconds_bucket{type=\"EmployeesResponse\""));
+        assertTrue(scrape.contains("resilience4j_retry_calls_total"));
+    }
+
     @Test
     void contextLoads() {
     }
 
+    /**
+     * Builds the upstream employee list response of the given employees.
+     */
+    private static String roster(String... employees) {
+        return "{\"status\":\"success\",\"data\":[" + String.join(",", employees) + "]}";
+    }
+
+    /**
+     * Answers the upstream create of {"name":"pramod"} with employee 3, earning 500000.
+     */
+    private void stubCreatePramod() {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        httpHeaders.setContentType(MediaType.APPLICATION_JSON);
+        when(httpRestUtil.callRestAPI(AppConstants.CREATE_EMPLOYEE_URL, httpHeaders, AppConstants.POST,
+                Optional.of("{\"name\":\"pramod\"}")))
+                .thenReturn(Optional.of(CREATED_PRAMOD));
+    }
+
+    /**
+     * Answers the streamed GET of the full employee list with the given body, or an empty body.
+     */
+    private void stubAllEmployees(Optional<String> response) {
+        when(httpRestUtil.streamRestAPI(eq(AppConstants.BASE_EMPLOYEES_URL), any()))
+                .thenAnswer(invocation -> invocation.<ResponseBodyReader<?>>getArgument(1)
+                        .read(new ByteArrayInputStream(response.orElse("").getBytes(StandardCharsets.UTF_8))));
+    }
+
+    /**
+     * Verifies the number of upstream calls, whether plain or streamed.
+     */
+    private void verifyUpstreamCalls(int count) {
+        assertEquals(count, mockingDetails(httpRestUtil).getInvocations().stream()
+                .filter(invocation -> !invocation.getMethod().getName().equals("toString"))
+                .count());
+    }
+
 }
@@ -0,0 +1,132 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.rest.EmployeeController;
+import com.example.rqchallenge.employees.utils.AppConstants;
+import com.example.rqchallenge.employees.utils.UpstreamConcurrencyLimiter;
+import com.example.rqchallenge.employees.utils.UpstreamMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the real {@link com.example.rqchallenge.employees.utils.HttpRestUtil} against a mocked RestTemplate, so the
+ * circuit breaker and bulkhead around it are in play.
+ */
+@SpringBootTest(properties = {
+        "resilience4j.circuitbreaker.instances.employeeUpstream.sliding-window-size=4",
+        "resilience4j.circuitbreaker.instances.employeeUpstream.minimum-number-of-calls=4",
+        "resilience4j.circuitbreaker.instances.employeeUpstream.automatic-transition-from-open-to-half-open-enabled=false",
+        "resilience4j.retry.configs.default.wait-duration=1ms",
+        "employee.upstream.limit.max-retry-after=300ms"})
+@ActiveProfiles("test")
+class UpstreamResilienceTests {
+
+    @Autowired
+    EmployeeController employeeController;
+
+    @Autowired
+    CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    UpstreamConcurrencyLimiter upstreamConcurrencyLimiter;
+
+    @MockBean
+    RestTemplate restTemplate;
+
+    CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker(AppConstants.EMPLOYEE_UPSTREAM);
+        circuitBreaker.reset();
+    }
+
+    @Test
+    void testOpenCircuitFailsFastToFallback() {
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), isNull(),
+                ArgumentMatchers.<ResponseExtractor<Object>>any()))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        //three attempts of the first request and one of the second fill the window and open the circuit,
+        //so the second request skips its remaining retries
+        assertEquals(Integer.MAX_VALUE, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(Integer.MAX_VALUE, employeeController.getHighestSalaryOfEmployees().getBody());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(restTemplate, times(4)).execute(anyString(), eq(HttpMethod.GET), isNull(),
+                ArgumentMatchers.<ResponseExtractor<Object>>any());
+
+        //neither retried nor sent upstream while open
+        assertEquals(Integer.MAX_VALUE, employeeController.getHighestSalaryOfEmployees().getBody());
+        verify(restTemplate, times(4)).execute(anyString(), eq(HttpMethod.GET), isNull(),
+                ArgumentMatchers.<ResponseExtractor<Object>>any());
+        assertEquals(1, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tag("name", AppConstants.EMPLOYEE_UPSTREAM).tag("state", "open").gauge().value());
+        assertEquals(1, meterRegistry.get("employee.upstream.circuit.transitions")
+                .tag("name", AppConstants.EMPLOYEE_UPSTREAM).tag("from", "closed").tag("to", "open").counter().count());
+        assertNotNull(meterRegistry.get("resilience4j.bulkhead.available.concurrent.calls")
+                .tag("name", AppConstants.EMPLOYEE_UPSTREAM).gauge());
+
+        //only calls that got past the circuit breaker are timed, every request that fell back is counted
+        assertEquals(4, meterRegistry.get(UpstreamMetrics.UPSTREAM_REQUESTS).tag("uri", "/employees")
+                .tag("outcome", "UNKNOWN").tag("exception", "ResourceAccessException").timer().count());
+        assertEquals(1, meterRegistry.get("employee.fallbacks").tag("exception", "ResourceAccessException").counter().count());
+        assertEquals(2, meterRegistry.get("employee.fallbacks").tag("exception", "CallNotPermittedException").counter().count());
+    }
+
+    @Test
+    void testThrottledUpstreamIsNotRetriedUntilRetryAfter() throws InterruptedException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "30");
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null))
+                .thenReturn(ResponseEntity.ok("{\"status\":\"success\",\"data\":{\"id\":102,\"employee_name\":\"Garrett Winters\"}}"));
+        double limit = upstreamConcurrencyLimiter.getLimit();
+
+        //the retry finds upstream paused for longer than it may wait, so it falls back without calling upstream
+        employeeController.getEmployeeById("101");
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class));
+        assertEquals(Math.max(1, limit / 2), upstreamConcurrencyLimiter.getLimit());
+        assertEquals(1, meterRegistry.get("employee.upstream.rejected").tag("reason", "retry_after").counter().count());
+
+        //Retry-After is capped at max-retry-after, after which upstream is called again
+        Thread.sleep(300);
+        assertEquals("Garrett Winters", employeeController.getEmployeeById("102").getBody().getName());
+    }
+
+        @Test
+    void testClientErrorsDoNotOpenTheCircuit() {
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+
+        for (int i = 0; i < 4; i++) {
+            employeeController.getEmployeeById(String.valueOf(i));
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, circuitBreaker.getMetrics().getNumberOfFailedCalls());
+        //every attempt is timed under the same templated uri, whatever the id
+        assertEquals(12, meterRegistry.get(UpstreamMetrics.UPSTREAM_REQUESTS).tag("uri", "/employees/{id}")
+                .tag("outcome", "CLIENT_ERROR").tag("exception", "HttpClientErrorException").timer().count());
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.rqchallenge.employees.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.support.SimpleTriggerContext;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotRefresherTests {
+
+    private final EmployeeSnapshotRefresher refresher = new EmployeeSnapshotRefresher();
+
+    @Test
+    void testRefreshesAreSpreadAroundTheInterval() {
+        refresher.intervalMs = 1000;
+        refresher.jitterMs = 100;
+        Date completed = new Date(1_000_000);
+        SimpleTriggerContext triggerContext = new SimpleTriggerContext();
+        triggerContext.update(completed, completed, completed);
+
+        long earliest = Long.MAX_VALUE;
+        long latest = Long.MIN_VALUE;
+        for (int i = 0; i < 1000; i++) {
+            long delay = refresher.nextRefresh(triggerContext).getTime() - completed.getTime();
+            earliest = Math.min(earliest, delay);
+            latest = Math.max(latest, delay);
+        }
+        assertTrue(earliest >= 900 && earliest < 950, "earliest " + earliest);
+        assertTrue(latest <= 1100 && latest > 1050, "latest " + latest);
+    }
+
+    @Test
+    void testFirstRefreshWaitsForTheInitialDelay() {
+        refresher.initialDelayMs = 60000;
+        long delay = refresher.nextRefresh(new SimpleTriggerContext()).getTime() - System.currentTimeMillis();
+        assertTrue(delay > 59000 && delay <= 60000, "delay " + delay);
+    }
+
+    @Test
+    void testRefreshMustComeBeforeTheSnapshotGoesStale() {
+        refresher.intervalMs = 30000;
+        refresher.jitterMs = 5000;
+        refresher.maxStalenessMs = 35000;
+        assertThrows(IllegalStateException.class, refresher::validate);
+
+        refresher.maxStalenessMs = 600000;
+        refresher.jitterMs = 30000;
+        assertThrows(IllegalStateException.class, refresher::validate);
+
+        refresher.jitterMs = 5000;
+        refresher.validate();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotTests {
+
+    private static final List<Employee> ROSTER = List.of(
+            new Employee(1, "Tiger Nixon", 320800, "61", ""),
+            new Employee(2, "Garrett Winters", 170750, "63", ""),
+            new Employee(3, "Ashton Cox", 86000, "66", ""),
+            new Employee(4, "Cedric Kelly", 170750, "22", ""));
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testTopEarnersAreOrderedBySalaryThenId(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now());
+        assertEquals(List.of(1, 2, 4), ids(snapshot.getTopEarners(3)));
+        assertEquals(4, snapshot.getTopEarners(100).size());
+        assertTrue(snapshot.getTopEarners(0).isEmpty());
+        assertEquals(320800, snapshot.getHighestSalary());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testWithAddedKeepsIndexInStep(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now());
+        EmployeeSnapshot updated = snapshot.withAdded(new Employee(5, "Airi Satou", 170750, "33", ""));
+
+        assertEquals(List.of(1, 2, 4, 5, 3), ids(updated.getTopEarners(10)));
+        assertEquals("Airi Satou", updated.findById(5).get().getName());
+        assertEquals(5, updated.size());
+        assertEquals(4, snapshot.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testWithAddedReplacesExistingId(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now());
+        EmployeeSnapshot updated = snapshot.withAdded(new Employee(3, "Ashton Cox", 400000, "66", ""));
+
+        assertEquals(400000, updated.getHighestSalary());
+        assertEquals(List.of(3, 1, 2, 4), ids(updated.getTopEarners(10)));
+        assertEquals(4, updated.size());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testWithRemovedKeepsIndexInStep(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now());
+        EmployeeSnapshot updated = snapshot.withRemoved(1).withRemoved(99);
+
+        assertEquals(170750, updated.getHighestSalary());
+        assertEquals(List.of(2, 4, 3), ids(updated.getTopEarners(10)));
+        assertTrue(updated.findById(1).isEmpty());
+        assertNull(updated.withRemoved(2).withRemoved(3).withRemoved(4).getHighestSalary());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testWithChangesAppliesBatch(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now());
+        EmployeeSnapshot updated = snapshot.withChanges(
+                List.of(new Employee(5, "Airi Satou", 170750, "33", ""), new Employee(3, "Ashton Cox", 400000, "66", "")),
+                List.of(1, 2, 99));
+
+        assertEquals(List.of(3, 4, 5), ids(updated.getTopEarners(10)));
+        assertEquals(List.of(5), ids(updated.searchByName("Airi")));
+        assertTrue(updated.findById(1).isEmpty());
+        assertEquals(4, snapshot.size());
+    }
+
+    @Test
+    void testDiffComparesRostersById() {
+        EmployeeSnapshot previous = SnapshotLayout.OBJECTS.create(ROSTER, Instant.now());
+        RosterDiff diff = RosterDiff.between(previous, List.of(
+                new Employee(4, "Cedric Kelly", 170750, "22", ""),
+                new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(3, "Ashton Cox", 90000, "66", ""),
+                new Employee(5, "Airi Satou", 162700, "33", "")));
+
+        assertEquals(List.of(5), ids(diff.getAdded()));
+        assertEquals(List.of(2), ids(diff.getRemoved()));
+        assertEquals(List.of(3), ids(diff.getChanged()));
+        assertEquals(86000, diff.getChangedFrom().get(0).getSalary());
+        assertTrue(diff.touches(employee -> employee.getName().startsWith("Garrett")));
+        assertFalse(diff.touches(employee -> employee.getName().startsWith("Tiger")));
+        assertTrue(RosterDiff.between(previous, ROSTER).isEmpty());
+        assertTrue(RosterDiff.between(null, ROSTER).touches(employee -> false));
+    }
+
+    @Test
+    void testDiffTouchesTopEarnersOnlyWhenTheyMayChange() {
+        EmployeeSnapshot previous = SnapshotLayout.OBJECTS.create(ROSTER, Instant.now());
+        List<Employee> topTwo = previous.getTopEarners(2);
+
+        RosterDiff raiseBelowTop = RosterDiff.of(previous, List.of(new Employee(3, "Ashton Cox", 90000, "66", "")), List.of());
+        assertFalse(raiseBelowTop.touchesTopEarners(topTwo, 2));
+        assertFalse(raiseBelowTop.touchesHighestSalary(320800));
+        RosterDiff removedBelowTop = RosterDiff.of(previous, List.of(), List.of(4));
+        assertFalse(removedBelowTop.touchesTopEarners(topTwo, 2));
+        assertFalse(removedBelowTop.touchesHighestSalary(320800));
+
+        RosterDiff removedFromTop = RosterDiff.of(previous, List.of(), List.of(2));
+        assertTrue(removedFromTop.touchesTopEarners(topTwo, 2));
+        assertFalse(removedFromTop.touchesHighestSalary(320800));
+        assertTrue(RosterDiff.of(previous, List.of(), List.of(1)).touchesHighestSalary(320800));
+        RosterDiff newHighest = RosterDiff.of(previous, List.of(new Employee(5, "Airi Satou", 400000, "33", "")), List.of());
+        assertTrue(newHighest.touchesTopEarners(topTwo, 2));
+        assertTrue(newHighest.touchesHighestSalary(320800));
+        //with fewer than n top earners, anyone added joins them
+        assertTrue(raiseBelowTop.touchesTopEarners(previous.getTopEarners(10), 10));
+        assertTrue(RosterDiff.between(null, ROSTER).touchesTopEarners(topTwo, 2));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testRefreshMatchesAFullBuild(SnapshotLayout layout) {
+        EmployeeSnapshot previous = layout.create(ROSTER, Instant.now());
+        List<Employee> roster = List.of(
+                new Employee(1, "Tiger Nixon", 320800, "61", ""),
+                new Employee(3, "Ashton Cox", 400000, "66", ""),
+                new Employee(4, "Cedric Kelly", 170750, "22", ""),
+                new Employee(5, "Airi Satou", 170750, "33", ""));
+        Instant refreshedAt = Instant.now();
+
+        EmployeeSnapshot refreshed = layout.refresh(previous, roster, RosterDiff.between(previous, roster), refreshedAt);
+        EmployeeSnapshot built = layout.create(roster, refreshedAt);
+        assertEquals(refreshedAt, refreshed.getRefreshedAt());
+        assertEquals(ids(built.getEmployees()), ids(refreshed.getEmployees()));
+        assertEquals(built.getTopEarners(10), refreshed.getTopEarners(10));
+        assertEquals(built.searchByName(NameQuery.of("a", true, NameQuery.UNLIMITED)),
+                refreshed.searchByName(NameQuery.of("a", true, NameQuery.UNLIMITED)));
+        assertTrue(refreshed.searchByName("Garrett").isEmpty());
+        assertEquals(4, previous.size());
+
+        EmployeeSnapshot unchanged = layout.refresh(refreshed, roster, RosterDiff.between(refreshed, roster), Instant.now());
+        assertEquals(built.getTopEarners(10), unchanged.getTopEarners(10));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testDuplicateIdsKeepTheLastEmployee(SnapshotLayout layout) {
+        EmployeeSnapshot previous = layout.create(ROSTER, Instant.now());
+        List<Employee> roster = List.of(
+                new Employee(1, "Tiger Nixon", 500000, "61", ""),
+                new Employee(2, "Garrett Winters", 170750, "63", ""),
+                new Employee(1, "Tiger Nixon", 320800, "61", ""));
+
+        for (EmployeeSnapshot snapshot : List.of(layout.create(roster, Instant.now()),
+                layout.refresh(previous, roster, RosterDiff.between(previous, roster), Instant.now()))) {
+            assertEquals(2, snapshot.size());
+            assertEquals(List.of(1, 2), ids(snapshot.getEmployees()));
+            assertEquals(320800, snapshot.getHighestSalary());
+            assertEquals(List.of(1, 2), ids(snapshot.getTopEarners(10)));
+            assertEquals(320800, snapshot.findById(1).get().getSalary());
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testKeysetPagesFollowIdOrder(SnapshotLayout layout) {
+        EmployeeSnapshot snapshot = layout.create(ROSTER, Instant.now()).withAdded(new Employee(0, "Airi Satou", 1, "33", ""));
+
+        assertEquals(List.of(0, 1), ids(snapshot.getEmployees(NameQuery.FROM_START, 2)));
+        assertEquals(List.of(2, 3), ids(snapshot.getEmployees(1, 2)));
+        assertEquals(List.of(4), ids(snapshot.getEmployees(3, 2)));
+        assertTrue(snapshot.getEmployees(4, 2).isEmpty());
+        assertEquals(List.of(3, 4), ids(snapshot.getEmployees(2, NameQuery.UNLIMITED)));
+        assertEquals(List.of(2), ids(snapshot.getEmployees(1, Integer.MAX_VALUE).subList(0, 1)));
+
+        assertEquals(List.of(0, 1), ids(snapshot.searchByName(NameQuery.of("i", true, 2))));
+        assertEquals(List.of(2, 4), ids(snapshot.searchByName(NameQuery.of("i", true, 2, 1))));
+        assertEquals(List.of(4), ids(snapshot.searchByName(NameQuery.of("Kel", false, 2, 3))));
+        assertTrue(snapshot.searchByName(NameQuery.of("Kel", false, 2, 4)).isEmpty());
+    }
+
+    @ParameterizedTest
+    @EnumSource(SnapshotLayout.class)
+    void testRowsRoundTrip(SnapshotLayout layout) {
+        List<Employee> roster = List.of(
+                new Employee(7, "Tiger Nixon", 320800, "61", "tiger.png"),
+                new Employee(5, null, 0, null, null),
+                new Employee(6, "Zo\u00eb \u00c5lander", -1, "061", ""),
+                new Employee(8, "Tiger Nixon", 170750, "300", "tiger.png"));
+        EmployeeSnapshot snapshot = layout.create(roster, Instant.now());
+
+        for (Employee employee : roster) {
+            assertEquals(employee, snapshot.findById(employee.getId()).get());
+        }
+        assertEquals(List.of(7, 8), ids(snapshot.searchByName("Tiger")));
+        assertEquals(List.of(6), ids(snapshot.searchByName(NameQuery.of("ZO\u00cb", true, NameQuery.UNLIMITED))));
+        assertEquals(List.of(7, 8, 5, 6), ids(snapshot.getTopEarners(10)));
+        assertEquals(4, snapshot.getEmployees().size());
+        int[] ageBands = {30, 62};
+        assertEquals(SalaryStats.of(SalaryAggregate.of(roster, 100000, ageBands)),
+                SalaryStats.of(snapshot.getSalaryAggregate(100000, ageBands)));
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
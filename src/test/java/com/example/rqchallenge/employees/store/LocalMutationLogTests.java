@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalMutationLogTests {
+
+    private static final Employee TIGER = new Employee(1, "Tiger Nixon", 320800, "61", "");
+    private static final Employee GARRETT = new Employee(2, "Garrett Winters", 170750, "63", "");
+    private static final Employee AIRI = new Employee(3, "Airi Satou", 162700, "33", "");
+
+    @Test
+    void testChangesAreReappliedUntilTheRosterReflectsThem() {
+        Instant now = Instant.now();
+        LocalMutationLog log = new LocalMutationLog();
+        log.record(List.of(AIRI), List.of(2), now);
+
+        assertEquals(List.of(1, 3), ids(log.reconcile(List.of(TIGER, GARRETT), now.minusSeconds(60))));
+        assertEquals(2, log.size());
+
+        //upstream now has the delete but not the create
+        assertEquals(List.of(1, 3), ids(log.reconcile(List.of(TIGER), now.minusSeconds(60))));
+        assertEquals(1, log.size());
+
+        //upstream has both, and its version of the created employee wins
+        Employee upstreamAiri = new Employee(3, "Airi Satou", 170000, "33", "");
+        assertEquals(List.of(upstreamAiri, TIGER), log.reconcile(List.of(upstreamAiri, TIGER), now.minusSeconds(60)));
+        assertEquals(0, log.size());
+    }
+
+    @Test
+    void testExpiredChangesAreDropped() {
+        Instant now = Instant.now();
+        LocalMutationLog log = new LocalMutationLog();
+        log.record(List.of(AIRI), List.of(), now.minusSeconds(600));
+        log.record(List.of(), List.of(2), now);
+
+        assertEquals(List.of(1), ids(log.reconcile(List.of(TIGER, GARRETT), now.minusSeconds(300))));
+        assertEquals(1, log.size());
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
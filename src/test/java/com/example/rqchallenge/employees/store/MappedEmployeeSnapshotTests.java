@@ -0,0 +1,141 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedEmployeeSnapshotTests {
+
+    private static final List<Employee> ROSTER = List.of(
+            new Employee(7, "Tiger Nixon", 320800, "61", "tiger.png"),
+            new Employee(5, null, 0, null, null),
+            new Employee(6, "Zo\u00eb \u00c5lander", -1, "061", ""),
+            new Employee(8, "Tiger Nixon", 170750, "300", "tiger.png"),
+            new Employee(2, "Garrett Winters", 170750, "63", ""));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenSnapshotAnswersLikeTheHeapSnapshot() throws IOException {
+        Instant refreshedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        EmployeeSnapshot heap = SnapshotLayout.OBJECTS.create(ROSTER, refreshedAt);
+        Path file = directory.resolve("roster.bin");
+        MappedEmployeeSnapshot.write(heap, file);
+
+        EmployeeSnapshot mapped = MappedEmployeeSnapshot.map(file).get();
+        assertEquals(refreshedAt, mapped.getRefreshedAt());
+        assertEquals(5, mapped.size());
+        for (Employee employee : ROSTER) {
+            assertEquals(employee, mapped.findById(employee.getId()).get());
+        }
+        assertTrue(mapped.findById(3).isEmpty());
+        assertEquals(List.of(2, 5, 6, 7, 8), ids(mapped.getEmployees()));
+        assertEquals(heap.getTopEarners(10), mapped.getTopEarners(10));
+        assertEquals(heap.getTopEarnerNames(3), mapped.getTopEarnerNames(3));
+        assertEquals(320800, mapped.getHighestSalary());
+        assertEquals(SalaryStats.of(heap.getSalaryAggregate(100000, new int[]{62})),
+                SalaryStats.of(mapped.getSalaryAggregate(100000, new int[]{62})));
+        assertEquals(List.of(7, 8), ids(mapped.searchByName("Tiger")));
+        assertEquals(List.of(7), ids(mapped.searchByName(NameQuery.of("tiger", true, 1))));
+        assertEquals(List.of(2), ids(mapped.searchByName(NameQuery.of("T wI", true, NameQuery.UNLIMITED))));
+        assertTrue(mapped.searchByName(NameQuery.of("tiger", false, NameQuery.UNLIMITED)).isEmpty());
+        assertEquals(List.of(6), ids(mapped.searchByName("\u00c5l")));
+        assertEquals(List.of(6), ids(mapped.searchByName(NameQuery.of("ZO\u00cb", true, NameQuery.UNLIMITED))));
+        assertEquals(List.of(6, 7), ids(mapped.getEmployees(5, 2)));
+        assertEquals(List.of(8), ids(mapped.searchByName(NameQuery.of("Tiger", false, 1, 7))));
+    }
+
+    @Test
+    void testLocalChangesDeriveAHeapSnapshot() throws IOException {
+        Path file = directory.resolve("roster.bin");
+        MappedEmployeeSnapshot.write(SnapshotLayout.COLUMNAR.create(ROSTER, Instant.now()), file);
+        EmployeeSnapshot mapped = MappedEmployeeSnapshot.map(file).get();
+
+        EmployeeSnapshot updated = mapped.withAdded(new Employee(9, "Airi Satou", 400000, "33", "")).withRemoved(7);
+        assertEquals(List.of(9, 2, 8), ids(updated.getTopEarners(3)));
+        assertEquals(5, mapped.size());
+    }
+
+    @Test
+    void testMissingOrForeignFiles() throws IOException {
+        assertTrue(MappedEmployeeSnapshot.map(directory.resolve("missing.bin")).isEmpty());
+
+        Path foreign = Files.write(directory.resolve("foreign.bin"), "not a snapshot file".getBytes());
+        assertThrows(IOException.class, () -> MappedEmployeeSnapshot.map(foreign));
+
+        Path file = directory.resolve("roster.bin");
+        MappedEmployeeSnapshot.write(SnapshotLayout.OBJECTS.create(ROSTER, Instant.now()), file);
+        byte[] bytes = Files.readAllBytes(file);
+        Path truncated = Files.write(directory.resolve("truncated.bin"), Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> MappedEmployeeSnapshot.map(truncated));
+    }
+
+    @Test
+    void testStoreRestoresThePublishedRoster() throws InterruptedException {
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore();
+        store.fileEnabled = true;
+        store.filePath = directory.resolve("employee-snapshot.bin").toString();
+        store.publish(ROSTER);
+        store.awaitPersisted();
+
+        EmployeeSnapshotStore restarted = new EmployeeSnapshotStore();
+        restarted.fileEnabled = true;
+        restarted.filePath = store.filePath;
+        assertTrue(restarted.lastGood().isEmpty());
+        restarted.restore();
+
+        assertEquals(320800, restarted.current().get().getHighestSalary());
+        assertEquals(List.of(2, 5, 6, 7, 8), ids(restarted.lastGood().get().getEmployees()));
+    }
+
+    @Test
+    void testStorePersistsLocalChangesAndSkipsUnchangedRosters() throws Exception {
+        Path file = directory.resolve("employee-snapshot.bin");
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore();
+        store.fileEnabled = true;
+        store.filePath = file.toString();
+        store.publish(ROSTER);
+        store.applyLocalChanges(List.of(), List.of(2));
+        store.awaitPersisted();
+        assertEquals(List.of(5, 6, 7, 8), ids(MappedEmployeeSnapshot.map(file).get().getEmployees()));
+
+        Files.delete(file);
+        store.publish(ROSTER);
+        store.awaitPersisted();
+        assertFalse(Files.exists(file));
+    }
+
+    @Test
+    void testStaleRosterOnlyBacksFallbacks() throws IOException {
+        Path file = directory.resolve("employee-snapshot.bin");
+        MappedEmployeeSnapshot.write(SnapshotLayout.OBJECTS.create(ROSTER, Instant.now().minusSeconds(60)), file);
+
+        EmployeeSnapshotStore restarted = new EmployeeSnapshotStore();
+        restarted.fileEnabled = true;
+        restarted.filePath = file.toString();
+        restarted.maxStalenessMs = 30000;
+        restarted.restore();
+
+        assertTrue(restarted.current().isEmpty());
+        assertEquals(5, restarted.lastGood().get().size());
+        restarted.publish(ROSTER.subList(0, 2));
+        assertEquals(2, restarted.current().get().size());
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
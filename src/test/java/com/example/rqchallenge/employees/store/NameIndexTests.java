@@ -0,0 +1,52 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTests {
+
+    private final NameIndex index = NameIndex.of(List.of(
+            new Employee(3, "Ashton Cox", 86000, "66", ""),
+            new Employee(1, "Tiger Nixon", 320800, "61", ""),
+            new Employee(2, "Garrett Winters", 170750, "63", ""),
+            new Employee(4, "Cedric Kelly", 433060, "22", "")));
+
+    @Test
+    void testSearchMatchesStringContains() {
+        for (String searchString : List.of("", "e", "ig", "Tig", "tig", "er Ni", "Winters", "Nobody", "ttt")) {
+            List<Integer> expected = List.of(1, 2, 3, 4).stream()
+                    .filter(id -> index.findById(id).getName().contains(searchString))
+                    .collect(Collectors.toList());
+            assertEquals(expected, ids(index.search(NameQuery.of(searchString))), searchString);
+        }
+    }
+
+    @Test
+    void testSearchIgnoreCaseAndLimit() {
+        assertEquals(List.of(1), ids(index.search(NameQuery.of("TIGER", true, NameQuery.UNLIMITED))));
+        assertEquals(List.of(1, 2, 4), ids(index.search(NameQuery.of("E", true, NameQuery.UNLIMITED))));
+        assertEquals(List.of(1), ids(index.search(NameQuery.of("ER", true, 1))));
+    }
+
+    @Test
+    void testIncrementalUpdates() {
+        NameIndex updated = index.withAdded(new Employee(5, "Tiger Woods", 1, "40", ""))
+                .withRemoved(1)
+                .withAdded(new Employee(2, "Garrett Lake", 170750, "63", ""));
+
+        assertEquals(List.of(5), ids(updated.search(NameQuery.of("Tiger"))));
+        assertTrue(updated.search(NameQuery.of("Winters")).isEmpty());
+        assertEquals(List.of(2), ids(updated.search(NameQuery.of("lake", true, NameQuery.UNLIMITED))));
+        assertEquals(4, updated.size());
+        assertEquals(List.of(1), ids(index.search(NameQuery.of("Tiger"))));
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.rqchallenge.employees.store;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.entities.SalaryStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalaryAggregateTests {
+
+    private static final int[] AGE_BANDS = {25, 35, 45, 55, 65};
+
+    @Test
+    void testStatsOfARoster() {
+        List<Employee> roster = List.of(
+                new Employee(1, "Tiger Nixon", 100, "20", ""),
+                new Employee(2, "Garrett Winters", 200, "30", ""),
+                new Employee(3, "Ashton Cox", 300, "30", ""),
+                new Employee(4, "Airi Satou", 400, "", ""));
+
+        SalaryStats stats = SalaryStats.of(SalaryAggregate.of(roster, 100, new int[]{25}));
+
+        assertEquals(4, stats.getCount());
+        assertEquals(100, stats.getMin());
+        assertEquals(400, stats.getMax());
+        assertEquals(250.0, stats.getMean());
+        assertEquals(250.0, stats.getMedian());
+        assertEquals(Map.of("p25", 100, "p50", 200, "p75", 300, "p90", 400, "p95", 400, "p99", 400),
+                stats.getPercentiles());
+        assertEquals(List.of(new SalaryStats.Bucket(100, 199, 1), new SalaryStats.Bucket(200, 299, 1),
+                new SalaryStats.Bucket(300, 399, 1), new SalaryStats.Bucket(400, 499, 1)), stats.getHistogram());
+        assertEquals(List.of(new SalaryStats.AgeBand("<25", 1, 100, 100, 100.0, 100.0),
+                new SalaryStats.AgeBand("25+", 2, 200, 300, 250.0, 250.0),
+                new SalaryStats.AgeBand("unknown", 1, 400, 400, 400.0, 400.0)), stats.getAgeBands());
+    }
+
+    @Test
+    void testParallelAggregateMatchesASinglePass() {
+        List<Employee> roster = roster(new Random(7), 1, SalaryAggregate.PARALLEL_THRESHOLD * 5 + 3);
+
+        SalaryAggregate parallel = SalaryAggregate.of(roster, 50000, AGE_BANDS);
+        SalaryAggregate sequential = SalaryAggregate.builder(50000, AGE_BANDS).addAll(roster).build();
+
+        assertEquals(SalaryStats.of(sequential), SalaryStats.of(parallel));
+        assertArrayEquals(sequential.getSalaries(), parallel.getSalaries());
+    }
+
+    @Test
+    void testChangesMatchAFullAggregate() {
+        Random random = new Random(11);
+        List<Employee> roster = roster(random, 1, 2000);
+        List<Employee> removed = new ArrayList<>(roster.subList(100, 150));
+        List<Employee> added = roster(random, 5000, 80);
+        //an employee already counted can be both removed and added back with the same salary
+        added.add(roster.get(120));
+        List<Employee> updated = new ArrayList<>(roster);
+        updated.removeAll(removed);
+        updated.addAll(added);
+
+        SalaryAggregate patched = SalaryAggregate.of(roster, 50000, AGE_BANDS).withChanges(removed, added);
+        SalaryAggregate rebuilt = SalaryAggregate.of(updated, 50000, AGE_BANDS);
+
+        assertEquals(SalaryStats.of(rebuilt), SalaryStats.of(patched));
+        assertEquals(rebuilt.getBuckets(), patched.getBuckets());
+        assertEquals(SalaryStats.of(SalaryAggregate.of(List.of(), 50000, AGE_BANDS)),
+                SalaryStats.of(patched.withChanges(updated, List.of())));
+    }
+
+    @Test
+    void testStatsOnlyFollowChangesOfTheirSnapshot() {
+        List<Employee> roster = roster(new Random(13), 1, 100);
+        List<Employee> updated = new ArrayList<>(roster.subList(10, 100));
+        updated.addAll(roster(new Random(17), 1000, 5));
+        EmployeeSnapshot previous = SnapshotLayout.OBJECTS.create(roster, Instant.now());
+        EmployeeSnapshot snapshot = SnapshotLayout.OBJECTS.create(updated, Instant.now());
+        RosterDiff diff = RosterDiff.between(previous, updated);
+        SalaryStats stats = SalaryStats.of(previous.getSalaryAggregate(50000, AGE_BANDS), previous);
+
+        SalaryStats followed = stats.withDiff(previous, snapshot, diff);
+        assertEquals(SalaryStats.of(SalaryAggregate.of(updated, 50000, AGE_BANDS)), followed);
+        assertSame(snapshot, followed.getSource());
+        //a change already aggregated is not applied twice
+        assertSame(followed, followed.withDiff(previous, snapshot, diff));
+        //nor is a change made to another snapshot
+        assertNull(followed.withDiff(previous, SnapshotLayout.OBJECTS.create(roster, Instant.now()), diff));
+        assertNull(SalaryStats.of(SalaryAggregate.of(roster, 50000, AGE_BANDS)).withDiff(previous, snapshot, diff));
+    }
+
+    private static List<Employee> roster(Random random, int firstId, int size) {
+        List<Employee> roster = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            String age = random.nextInt(20) == 0 ? "n/a" : String.valueOf(18 + random.nextInt(55));
+            roster.add(new Employee(firstId + i, "Employee " + (firstId + i), random.nextInt(500000), age, ""));
+        }
+        return roster;
+    }
+}
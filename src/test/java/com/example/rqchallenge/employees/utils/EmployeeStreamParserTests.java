@@ -0,0 +1,61 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.entities.Employee;
+import com.example.rqchallenge.employees.store.NameQuery;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeStreamParserTests {
+
+    private static final String RESPONSE = "{\"status\":\"success\",\"meta\":{\"data\":[{\"id\":99}]},\"data\":["
+            + "{\"id\":1,\"employee_name\":\"Tiger Nixon\",\"employee_salary\":320800,\"employee_age\":61,\"profile_image\":\"\"},"
+            + "{\"id\":2,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":\"\"},"
+            + "{\"id\":3,\"employee_name\":\"Ashton Cox\",\"employee_salary\":86000,\"employee_age\":66,\"profile_image\":\"\"},"
+            + "{\"id\":4,\"employee_name\":\"Cedric Kelly\",\"employee_salary\":433060,\"employee_age\":22,\"profile_image\":\"\"}"
+            + "],\"message\":\"Successfully! All records has been fetched.\"}";
+
+    @Test
+    void testReadAllSkipsOtherFields() throws IOException {
+        assertEquals(List.of(1, 2, 3, 4), ids(EmployeeStreamParser.readAll(body(RESPONSE))));
+        assertTrue(EmployeeStreamParser.readAll(body("{\"status\":\"success\",\"data\":null}")).isEmpty());
+    }
+
+    @Test
+    void testAggregates() throws IOException {
+        assertEquals(433060, EmployeeStreamParser.highestSalary(body(RESPONSE)));
+        assertNull(EmployeeStreamParser.highestSalary(body("{\"data\":[]}")));
+        assertEquals(List.of(4, 1, 2), ids(EmployeeStreamParser.topEarners(body(RESPONSE), 3)));
+        assertEquals(List.of(4, 1, 2, 3), ids(EmployeeStreamParser.topEarners(body(RESPONSE), 10)));
+        assertEquals(List.of(1, 2), ids(EmployeeStreamParser.searchByName(body(RESPONSE), NameQuery.of("ER", true, 2))));
+        assertEquals(List.of(2, 4), ids(EmployeeStreamParser.searchByName(body(RESPONSE), NameQuery.of("e", false, 2, 1))));
+    }
+
+    @Test
+    void testPageKeepsLowestIdsAfterTheCursor() throws IOException {
+        String unordered = "{\"data\":[{\"id\":9},{\"id\":3},{\"id\":7},{\"id\":1},{\"id\":5}]}";
+        assertEquals(List.of(1, 3), ids(EmployeeStreamParser.page(body(unordered), NameQuery.FROM_START, 2)));
+        assertEquals(List.of(5, 7), ids(EmployeeStreamParser.page(body(unordered), 3, 2)));
+        assertEquals(List.of(7, 9), ids(EmployeeStreamParser.page(body(unordered), 5, NameQuery.UNLIMITED)));
+    }
+
+    @Test
+    void testEmptyBodyIsAnError() {
+        assertThrows(IOException.class, () -> EmployeeStreamParser.readAll(body("")));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Integer> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.rqchallenge.employees.utils;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        int callers = 8;
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("allEmployees", "", () -> {
+                    calls.incrementAndGet();
+                    release.await();
+                    return "roster";
+                })));
+            }
+            //release the leader only once every other caller has joined it
+            while (coalesced("allEmployees") < callers - 1) {
+                Thread.sleep(5);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("roster", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, calls.get());
+        assertEquals(callers - 1, coalesced("allEmployees"));
+    }
+
+    @Test
+    void testFailureIsSharedAndNotRemembered() throws Exception {
+        assertThrows(IOException.class, () -> singleFlight.execute("employeeById", "1", () -> {
+            throw new IOException("upstream down");
+        }));
+        assertEquals("Tiger Nixon", singleFlight.execute("employeeById", "1", () -> "Tiger Nixon"));
+        assertEquals("Garrett Winters", singleFlight.execute("employeeById", "2", () -> "Garrett Winters"));
+        assertEquals(0, coalesced("employeeById"));
+    }
+
+    @Test
+    void testConcurrentAsyncCallersShareOneSubscription() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        Sinks.One<String> roster = Sinks.one();
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(singleFlight.executeAsync("allEmployees", "", () -> {
+                calls.incrementAndGet();
+                return roster.asMono();
+            }).toFuture());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(3, coalesced("allEmployees"));
+        roster.tryEmitValue("roster");
+        for (CompletableFuture<String> result : results) {
+            assertEquals("roster", result.get(5, TimeUnit.SECONDS));
+        }
+        //the completed flight is forgotten, so the next call subscribes again
+        assertEquals("Tiger Nixon", singleFlight.executeAsync("allEmployees", "", () -> Mono.just("Tiger Nixon")).block());
+        assertEquals(3, coalesced("allEmployees"));
+    }
+
+    private double coalesced(String call) {
+        return meterRegistry.find("employee.upstream.coalesced").tag("call", call).counters().stream()
+                .mapToDouble(counter -> counter.count()).sum();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.rqchallenge.employees.utils;
+
+import com.example.rqchallenge.employees.config.UpstreamLimitProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamConcurrencyLimiterTests {
+
+    private final UpstreamLimitProperties properties = new UpstreamLimitProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testLimitGrowsWhileUsedAndShrinksOnSlowCalls() {
+        properties.setInitial(2);
+        properties.setMax(3);
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(properties, meterRegistry);
+
+        UpstreamConcurrencyLimiter.Permit first = limiter.acquire();
+        UpstreamConcurrencyLimiter.Permit second = limiter.acquire();
+        first.succeeded(true);
+        //released with less than half of the limit in use, so no sign upstream could take more
+        second.succeeded(true);
+        assertEquals(2.5, limiter.getLimit(), 0.001);
+
+        for (int i = 0; i < 10; i++) {
+            first = limiter.acquire();
+            second = limiter.acquire();
+            first.succeeded(true);
+            second.succeeded(true);
+        }
+        assertEquals(3, limiter.getLimit());
+
+        properties.setLatencyThreshold(Duration.ZERO);
+        UpstreamConcurrencyLimiter.Permit slow = limiter.acquire();
+        sleep(2);
+        slow.succeeded(true);
+        assertEquals(2.7, limiter.getLimit(), 0.001);
+
+        //other failures and unsampled calls leave the limit alone
+        limiter.acquire().failed(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        limiter.acquire().succeeded(false);
+        assertEquals(2.7, limiter.getLimit(), 0.001);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testCallersQueueForAFreedPermitOrAreRejected() throws Exception {
+        properties.setInitial(1);
+        properties.setMaxWait(Duration.ofMillis(100));
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(properties, meterRegistry);
+
+        UpstreamConcurrencyLimiter.Permit held = limiter.acquire();
+        assertThrows(UpstreamLimitExceededException.class, limiter::acquire);
+        assertEquals(1, meterRegistry.get("employee.upstream.rejected").tag("reason", "queue_timeout").counter().count());
+
+        properties.setMaxWait(Duration.ofSeconds(5));
+        CompletableFuture<UpstreamConcurrencyLimiter.Permit> queued = CompletableFuture.supplyAsync(limiter::acquire);
+        sleep(50);
+        assertFalse(queued.isDone());
+        held.cancelled();
+        queued.get(1, TimeUnit.SECONDS).cancelled();
+
+        UpstreamConcurrencyLimiter.Permit again = limiter.acquire();
+        CompletableFuture<UpstreamConcurrencyLimiter.Permit> polled = limiter.acquireAsync().toFuture();
+        sleep(50);
+        assertFalse(polled.isDone());
+        again.cancelled();
+        polled.get(1, TimeUnit.SECONDS).cancelled();
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void testThrottledResponseHalvesTheLimitAndPausesCalls() {
+        properties.setInitial(8);
+        properties.setMaxRetryAfter(Duration.ofMillis(300));
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(properties, meterRegistry);
+
+        UpstreamConcurrencyLimiter.Permit alsoInFlight = limiter.acquire();
+        limiter.acquire().failed(tooManyRequests("30"));
+        assertEquals(4, limiter.getLimit());
+        //started before the backoff, so part of the same burst
+        alsoInFlight.failed(tooManyRequests("30"));
+        assertEquals(4, limiter.getLimit());
+        assertEquals(2, meterRegistry.get("employee.upstream.throttled").counter().count());
+
+        //the pause outlasts max-wait, so callers are rejected without waiting
+        long started = System.nanoTime();
+        assertThrows(UpstreamLimitExceededException.class, limiter::acquire);
+        assertThrows(UpstreamLimitExceededException.class, () -> limiter.acquireAsync().block());
+        assertTrue(System.nanoTime() - started < TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(2, meterRegistry.get("employee.upstream.rejected").tag("reason", "retry_after").counter().count());
+
+        //a pause within max-wait is waited out
+        sleep(150);
+        limiter.acquire().succeeded(true);
+    }
+
+    @Test
+    void testRetryAfterForms() {
+        UpstreamConcurrencyLimiter limiter = new UpstreamConcurrencyLimiter(properties, meterRegistry);
+        assertEquals(Duration.ofSeconds(5), limiter.retryAfter(retryAfter("5")));
+        assertEquals(Duration.ofSeconds(1), limiter.retryAfter(new HttpHeaders()));
+        assertEquals(Duration.ofSeconds(1), limiter.retryAfter(retryAfter("soon")));
+        assertEquals(Duration.ofSeconds(30), limiter.retryAfter(retryAfter("3600")));
+
+        String inTenSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().plusSeconds(10));
+        Duration fromDate = limiter.retryAfter(retryAfter(inTenSeconds));
+        assertTrue(fromDate.compareTo(Duration.ofSeconds(8)) > 0 && fromDate.compareTo(Duration.ofSeconds(10)) <= 0, fromDate.toString());
+        String past = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.now().minusSeconds(10));
+        assertEquals(Duration.ZERO, limiter.retryAfter(retryAfter(past)));
+    }
+
+    private static HttpClientErrorException tooManyRequests(String retryAfter) {
+        return HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests",
+                retryAfter(retryAfter), null, null);
+    }
+
+    private static HttpHeaders retryAfter(String value) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, value);
+        return headers;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
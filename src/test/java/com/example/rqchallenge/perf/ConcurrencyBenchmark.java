@@ -0,0 +1,110 @@
+package com.example.rqchallenge.perf;
+
+import com.example.rqchallenge.employees.utils.HttpRestUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fires a burst of concurrent GET /employee/{id} requests against a stubbed upstream that takes
+ * benchmark.upstream-latency-ms to answer, and reports latency percentiles and the peak number of
+ * upstream calls in flight. Run it once per mode and compare:
+ * ./gradlew benchmark and ./gradlew benchmark -PvirtualThreads
+ * The upstream stub is a plain subclass rather than a Mockito mock so it also runs on Java 21.
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class ConcurrencyBenchmark {
+
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.warmup-requests", 500);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+    private static final long UPSTREAM_LATENCY_MS = Long.getLong("benchmark.upstream-latency-ms", 200);
+
+    @LocalServerPort
+    int port;
+
+    static final AtomicInteger inFlight = new AtomicInteger();
+    static final AtomicInteger peakInFlight = new AtomicInteger();
+
+    @TestConfiguration
+    static class SlowUpstreamConfig {
+
+        @Bean
+        @Primary
+        HttpRestUtil slowUpstream() {
+            return new HttpRestUtil() {
+                @Override
+                public Optional<String> callRestAPI(String url, HttpHeaders headers, String methodType, Optional<String> requestBody) {
+                    peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(UPSTREAM_LATENCY_MS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException(ex);
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                    String id = url.substring(url.lastIndexOf('/') + 1);
+                    return Optional.of("{\"status\":\"success\",\"data\":{\"id\":" + id
+                            + ",\"employee_name\":\"Employee " + id + "\",\"employee_salary\":1000,\"employee_age\":30}}");
+                }
+            };
+        }
+    }
+
+    @Test
+    void burstOfSlowUpstreamCalls() {
+        HttpClient client = HttpClient.newHttpClient();
+        burst(client, WARMUP_REQUESTS, 0);
+        peakInFlight.set(0);
+
+        long started = System.nanoTime();
+        LatencyRecorder latencies = burst(client, REQUESTS, WARMUP_REQUESTS);
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+
+        System.out.printf("mode=%s requests=%d upstreamLatency=%dms throughput=%.0f req/s peakUpstreamConcurrency=%d %s%n",
+                Boolean.getBoolean("employee.threads.virtual") ? "virtual-threads" : "platform-threads",
+                REQUESTS, UPSTREAM_LATENCY_MS, REQUESTS / elapsedSeconds, peakInFlight.get(), latencies.summary());
+    }
+
+    private LatencyRecorder burst(HttpClient client, int count, int firstId) {
+        LatencyRecorder latencies = new LatencyRecorder(count);
+        AtomicInteger ok = new AtomicInteger();
+        List<CompletableFuture<?>> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            //unique ids so no request is answered from a cache
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/employee/" + (firstId + i + 1)))
+                    .GET().build();
+            long sent = System.nanoTime();
+            requests.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        latencies.record(System.nanoTime() - sent);
+                        if (response.statusCode() == 200) {
+                            ok.incrementAndGet();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(requests.toArray(new CompletableFuture<?>[0])).join();
+        assertEquals(count, ok.get());
+        return latencies;
+    }
+}
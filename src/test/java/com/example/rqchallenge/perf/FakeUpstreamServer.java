@@ -0,0 +1,260 @@
+package com.example.rqchallenge.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Local stand-in for the dummy.restapiexample.com employee API, for load tests that cannot reach the real one.
+ * It serves GET /employees, GET /employees/{id} (and /employee/{id}, the path the real API documents), POST /create
+ * and DELETE /delete/{id} under /api/v1, over a generated roster. Every request waits a log-normally distributed
+ * latency, fails with a 500 at the configured error rate, and above the configured requests per second is rejected
+ * with a 429 and Retry-After, like a rate-limited upstream.
+ * Point the service at {@link #baseUrl()} with employee.upstream.base-url. Run {@link #main} to start one on its own,
+ * configured by the upstream.* system properties of {@link Settings#fromSystemProperties()}.
+ */
+public class FakeUpstreamServer implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/v1";
+    private static final Pattern EMPLOYEE = Pattern.compile(BASE_PATH + "/employees?/(\\d+)");
+    private static final Pattern DELETE = Pattern.compile(BASE_PATH + "/delete/(\\d+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Integer, ObjectNode> roster = new ConcurrentSkipListMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final Settings settings;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private long window;
+    private int admittedInWindow;
+
+    private FakeUpstreamServer(Settings settings, int port) throws IOException {
+        this.settings = settings;
+        for (int i = 0; i < settings.rosterSize; i++) {
+            int id = nextId.incrementAndGet();
+            roster.put(id, employee(id, "Employee " + id, 30000 + (id * 7919) % 500000, 20 + id % 45));
+        }
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-upstream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 1024);
+        server.setExecutor(executor);
+        server.createContext(BASE_PATH, this::handle);
+        server.start();
+    }
+
+    public static FakeUpstreamServer start(Settings settings) throws IOException {
+        return new FakeUpstreamServer(settings, 0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        FakeUpstreamServer upstream = new FakeUpstreamServer(Settings.fromSystemProperties(), Integer.getInteger("upstream.port", 0));
+        System.out.printf("Fake upstream serving %d employees, start the service with --employee.upstream.base-url=%s%n",
+                upstream.settings.rosterSize, upstream.baseUrl());
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    public int rosterSize() {
+        return roster.size();
+    }
+
+    public String stats() {
+        return String.format("upstreamRequests=%d upstream429=%d upstream500=%d", requests.get(), rateLimited.get(), failed.get());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requests.incrementAndGet();
+            if (!admit()) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().add("Retry-After", "1");
+                respond(exchange, 429, error("Too Many Attempts."));
+                return;
+            }
+            sleep(latencyMs());
+            if (ThreadLocalRandom.current().nextDouble() < settings.errorRate) {
+                failed.incrementAndGet();
+                respond(exchange, 500, error("Internal Server Error"));
+                return;
+            }
+            route(exchange);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        Matcher employee = EMPLOYEE.matcher(path);
+        Matcher delete = DELETE.matcher(path);
+        if (method.equals("GET") && path.equals(BASE_PATH + "/employees")) {
+            respond(exchange, 200, success(objectMapper.valueToTree(roster.values()), "Successfully! All records has been fetched."));
+        } else if (method.equals("GET") && employee.matches()) {
+            ObjectNode found = roster.get(Integer.parseInt(employee.group(1)));
+            respond(exchange, 200, success(found, "Successfully! Record has been fetched."));
+        } else if (method.equals("POST") && path.equals(BASE_PATH + "/create")) {
+            JsonNode input = read(exchange.getRequestBody());
+            int id = nextId.incrementAndGet();
+            ObjectNode created = employee(id, input.path("name").asText(), input.path("salary").asInt(), input.path("age").asInt());
+            roster.put(id, created);
+            respond(exchange, 200, success(created, "Successfully! Record has been added."));
+        } else if (method.equals("DELETE") && delete.matches()) {
+            roster.remove(Integer.parseInt(delete.group(1)));
+            respond(exchange, 200, success(objectMapper.getNodeFactory().textNode(delete.group(1)),
+                    "Successfully! Record has been deleted"));
+        } else {
+            respond(exchange, 404, error("Not Found"));
+        }
+    }
+
+    /**
+     * Admits up to rateLimitPerSecond requests per one-second window, every request when the limit is 0.
+     */
+    private synchronized boolean admit() {
+        if (settings.rateLimitPerSecond <= 0) {
+            return true;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        if (second != window) {
+            window = second;
+            admittedInWindow = 0;
+        }
+        return ++admittedInWindow <= settings.rateLimitPerSecond;
+    }
+
+    private long latencyMs() {
+        if (settings.latencyMedianMs <= 0) {
+            return 0;
+        }
+        return Math.round(settings.latencyMedianMs * Math.exp(settings.latencySigma * ThreadLocalRandom.current().nextGaussian()));
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ObjectNode employee(int id, String name, int salary, int age) {
+        return objectMapper.createObjectNode()
+                .put("id", id)
+                .put("employee_name", name)
+                .put("employee_salary", salary)
+                .put("employee_age", age)
+                .put("profile_image", "");
+    }
+
+    private ObjectNode success(JsonNode data, String message) {
+        ObjectNode body = objectMapper.createObjectNode().put("status", "success");
+        body.set("data", data);
+        return body.put("message", message);
+    }
+
+    private ObjectNode error(String message) {
+        return objectMapper.createObjectNode().put("status", "error").put("message", message);
+    }
+
+    private JsonNode read(InputStream body) throws IOException {
+        return objectMapper.readTree(body);
+    }
+
+    private void respond(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Roster size and fault settings, 0 disables latency, errors or rate limiting.
+     */
+    public static class Settings {
+
+        int rosterSize = 1000;
+        double latencyMedianMs = 50;
+        double latencySigma = 0.5;
+        double errorRate;
+        int rateLimitPerSecond;
+
+        /**
+         * Reads upstream.roster-size, upstream.latency-median-ms, upstream.latency-sigma, upstream.error-rate and
+         * upstream.rate-limit-per-second, keeping the defaults for those that are not set.
+         */
+        public static Settings fromSystemProperties() {
+            Settings settings = new Settings();
+            settings.rosterSize = Integer.getInteger("upstream.roster-size", settings.rosterSize);
+            settings.latencyMedianMs = Double.parseDouble(System.getProperty("upstream.latency-median-ms", String.valueOf(settings.latencyMedianMs)));
+            settings.latencySigma = Double.parseDouble(System.getProperty("upstream.latency-sigma", String.valueOf(settings.latencySigma)));
+            settings.errorRate = Double.parseDouble(System.getProperty("upstream.error-rate", String.valueOf(settings.errorRate)));
+            settings.rateLimitPerSecond = Integer.getInteger("upstream.rate-limit-per-second", settings.rateLimitPerSecond);
+            return settings;
+        }
+
+        public Settings rosterSize(int rosterSize) {
+            this.rosterSize = rosterSize;
+            return this;
+        }
+
+        public Settings latency(double medianMs, double sigma) {
+            this.latencyMedianMs = medianMs;
+            this.latencySigma = sigma;
+            return this;
+        }
+
+        public Settings errorRate(double errorRate) {
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        public Settings rateLimitPerSecond(int rateLimitPerSecond) {
+            this.rateLimitPerSecond = rateLimitPerSecond;
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("rosterSize=%d latencyMedian=%.0fms latencySigma=%.2f errorRate=%.3f rateLimit=%d/s",
+                    rosterSize, latencyMedianMs, latencySigma, errorRate, rateLimitPerSecond);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.rqchallenge.perf;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Collects per-request latencies for a fixed number of requests and reports percentiles.
+ */
+public class LatencyRecorder {
+
+    private final AtomicLongArray latenciesNanos;
+    private final AtomicInteger recorded = new AtomicInteger();
+
+    public LatencyRecorder(int capacity) {
+        this.latenciesNanos = new AtomicLongArray(capacity);
+    }
+
+    public void record(long nanos) {
+        int index = recorded.getAndIncrement();
+        if (index < latenciesNanos.length()) {
+            latenciesNanos.set(index, nanos);
+        }
+    }
+
+    public int count() {
+        return Math.min(recorded.get(), latenciesNanos.length());
+    }
+
+    public double percentileMillis(double percentile) {
+        int count = count();
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = latenciesNanos.get(i);
+        }
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(rank, count - 1))] / 1_000_000.0;
+    }
+
+    public String summary() {
+        return String.format("p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                percentileMillis(50), percentileMillis(95), percentileMillis(99), percentileMillis(100));
+    }
+}
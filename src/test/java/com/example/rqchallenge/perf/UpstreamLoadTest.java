@@ -0,0 +1,143 @@
+package com.example.rqchallenge.perf;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Drives the employee endpoints over HTTP against a {@link FakeUpstreamServer}, with loadtest.concurrency clients each
+ * sending requests back to back until loadtest.requests have been sent, and reports throughput, latency percentiles
+ * and status codes per route along with what upstream saw. The upstream is shaped by the upstream.* properties of
+ * {@link FakeUpstreamServer.Settings#fromSystemProperties()}, for example:
+ * ./gradlew loadTest -Pupstream.latency-median-ms=100 -Pupstream.error-rate=0.05 -Pupstream.rate-limit-per-second=200
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UpstreamLoadTest {
+
+    private static final int REQUESTS = Integer.getInteger("loadtest.requests", 5000);
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 32);
+
+    static FakeUpstreamServer upstream;
+
+    @LocalServerPort
+    int port;
+
+    @DynamicPropertySource
+    static void upstreamBaseUrl(DynamicPropertyRegistry registry) throws IOException {
+        upstream = FakeUpstreamServer.start(FakeUpstreamServer.Settings.fromSystemProperties());
+        registry.add("employee.upstream.base-url", upstream::baseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        upstream.close();
+    }
+
+    @Test
+    void mixedReadLoad() throws Exception {
+        Map<String, Route> routes = new LinkedHashMap<>();
+        for (String name : List.of("GET /employee/{id}", "GET /employee/search/{name}", "GET /employee/highestSalary",
+                "GET /employee/topTenHighestEarningEmployeeNames", "GET /employee?limit=100")) {
+            routes.put(name, new Route(REQUESTS));
+        }
+        HttpClient client = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(4)).build();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        AtomicInteger sent = new AtomicInteger();
+
+        long started = System.nanoTime();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            workers.add(clients.submit(() -> {
+                while (sent.getAndIncrement() < REQUESTS) {
+                    send(client, routes);
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        clients.shutdown();
+
+        System.out.printf("upstream: %s%n", FakeUpstreamServer.Settings.fromSystemProperties());
+        System.out.printf("requests=%d concurrency=%d throughput=%.0f req/s %s%n",
+                REQUESTS, CONCURRENCY, REQUESTS / elapsedSeconds, upstream.stats());
+        routes.forEach((name, route) -> System.out.printf("  %-50s count=%d %s statuses=%s%n",
+                name, route.latencies.count(), route.latencies.summary(), route.statuses));
+        assertEquals(REQUESTS, routes.values().stream().mapToInt(route -> route.latencies.count()).sum());
+    }
+
+    /**
+     * Sends one request, mostly by-id lookups like a typical read mix, the rest spread over the aggregate endpoints.
+     */
+    private void send(HttpClient client, Map<String, Route> routes) throws IOException, InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int pick = random.nextInt(100);
+        String name;
+        String path;
+        if (pick < 60) {
+            name = "GET /employee/{id}";
+            path = "/employee/" + (1 + random.nextInt(upstream.rosterSize()));
+        } else if (pick < 80) {
+            name = "GET /employee/search/{name}";
+            path = "/employee/search/" + random.nextInt(1000);
+        } else if (pick < 88) {
+            name = "GET /employee/highestSalary";
+            path = "/employee/highestSalary";
+        } else if (pick < 96) {
+            name = "GET /employee/topTenHighestEarningEmployeeNames";
+            path = "/employee/topTenHighestEarningEmployeeNames";
+        } else {
+            name = "GET /employee?limit=100";
+            path = "/employee?limit=100&after=" + random.nextInt(upstream.rosterSize());
+        }
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        long start = System.nanoTime();
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException ex) {
+            status = -1;
+        }
+        Route route = routes.get(name);
+        route.latencies.record(System.nanoTime() - start);
+        route.statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+    }
+
+    private static class Route {
+
+        final LatencyRecorder latencies;
+        final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+
+        Route(int capacity) {
+            latencies = new LatencyRecorder(capacity);
+        }
+    }
+}